@@ -4,16 +4,21 @@
 package org.mule.maven.exchange.model;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 
 import java.io.*;
 
 public class ExchangeModelSerializer {
 
-    private ObjectMapper objectMapper = new ObjectMapper();
+    /**
+     * Mappers are thread safe once configured, sharing it avoids paying the bean introspection on every new serializer.
+     */
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private volatile ObjectWriter objectWriter = OBJECT_MAPPER.writer().with(SerializationFeature.INDENT_OUTPUT);
 
     public ExchangeModelSerializer() {
-        objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
     }
 
     public ExchangeModel read(File exchangeFile) throws IOException {
@@ -29,21 +34,21 @@ public class ExchangeModelSerializer {
     }
 
     public ExchangeModel read(Reader reader) throws IOException {
-        return objectMapper.readValue(reader, ExchangeModel.class);
+        return OBJECT_MAPPER.readValue(reader, ExchangeModel.class);
     }
 
 
     public void write(ExchangeModel model, File output) throws IOException {
-        objectMapper.writeValue(output, model);
+        objectWriter.writeValue(output, model);
     }
 
 
     public void write(ExchangeModel model, Writer output) throws IOException {
-        objectMapper.writeValue(output, model);
+        objectWriter.writeValue(output, model);
     }
 
     public void write(ExchangeModel model, OutputStream output) throws IOException {
-        objectMapper.writeValue(output, model);
+        objectWriter.writeValue(output, model);
     }
 
     /**
@@ -55,10 +60,14 @@ public class ExchangeModelSerializer {
      */
     public void indent(boolean shouldIndent){
         if (shouldIndent) {
-            objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+            objectWriter = objectWriter.with(SerializationFeature.INDENT_OUTPUT);
         } else {
-            objectMapper.disable(SerializationFeature.INDENT_OUTPUT);
+            objectWriter = objectWriter.without(SerializationFeature.INDENT_OUTPUT);
         }
     }
 
+    protected boolean isIndented() {
+        return objectWriter.isEnabled(SerializationFeature.INDENT_OUTPUT);
+    }
+
 }
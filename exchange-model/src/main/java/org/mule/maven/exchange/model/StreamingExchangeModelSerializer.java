@@ -0,0 +1,378 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange.model;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link ExchangeModelSerializer} backed by hand written {@link JsonParser}/{@link JsonGenerator} code instead of
+ * databind, so there is no reflection nor bean introspection involved.
+ * <p>
+ * The produced JSON is the same the databind backend generates: properties follow the {@code @JsonPropertyOrder} of
+ * each model class, the {@code @JsonInclude} rules are honoured, and any unknown property is kept in the
+ * additional properties of the model (as {@code @JsonAnySetter} does) to be written back at the end of the object.
+ * Instances are thread safe.
+ */
+public class StreamingExchangeModelSerializer extends ExchangeModelSerializer {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Override
+    public ExchangeModel read(Reader reader) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(reader)) {
+            final JsonToken token = parser.nextToken();
+            if (token == null) {
+                throw new JsonParseException(parser, "No content to map due to end-of-input");
+            }
+            return token == JsonToken.VALUE_NULL ? null : readModel(parser);
+        }
+    }
+
+    @Override
+    public void write(ExchangeModel model, File output) throws IOException {
+        write(model, JSON_FACTORY.createGenerator(output, JsonEncoding.UTF8));
+    }
+
+    @Override
+    public void write(ExchangeModel model, Writer output) throws IOException {
+        write(model, JSON_FACTORY.createGenerator(output));
+    }
+
+    @Override
+    public void write(ExchangeModel model, OutputStream output) throws IOException {
+        write(model, JSON_FACTORY.createGenerator(output, JsonEncoding.UTF8));
+    }
+
+    private void write(ExchangeModel model, JsonGenerator generator) throws IOException {
+        try (JsonGenerator gen = generator) {
+            if (isIndented()) {
+                gen.useDefaultPrettyPrinter();
+            }
+            if (model == null) {
+                gen.writeNull();
+            } else {
+                writeModel(model, gen);
+            }
+        }
+    }
+
+    // ExchangeModel: @JsonInclude(NON_NULL)
+
+    private static ExchangeModel readModel(JsonParser parser) throws IOException {
+        expect(parser, JsonToken.START_OBJECT);
+        final ExchangeModel model = new ExchangeModel();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            parser.nextToken();
+            switch (name) {
+                case "main":
+                    model.setMain(readString(parser));
+                    break;
+                case "name":
+                    model.setName(readString(parser));
+                    break;
+                case "classifier":
+                    model.setClassifier(readString(parser));
+                    break;
+                case "tags":
+                    model.setTags(readList(parser));
+                    break;
+                case "groupId":
+                    model.setGroupId(readString(parser));
+                    break;
+                case "assetId":
+                    model.setAssetId(readString(parser));
+                    break;
+                case "version":
+                    model.setVersion(readString(parser));
+                    break;
+                case "apiVersion":
+                    model.setApiVersion(readString(parser));
+                    break;
+                case "dependencies":
+                    model.setDependencies(readDependencies(parser));
+                    break;
+                case "metadata":
+                    model.setMetadata(parser.currentToken() == JsonToken.VALUE_NULL ? null : readMetadata(parser));
+                    break;
+                default:
+                    model.setAdditionalProperty(name, readValue(parser));
+            }
+        }
+        return model;
+    }
+
+    private static void writeModel(ExchangeModel model, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        writeNonNull(gen, "main", model.getMain());
+        writeNonNull(gen, "name", model.getName());
+        writeNonNull(gen, "classifier", model.getClassifier());
+        if (model.getTags() != null) {
+            gen.writeFieldName("tags");
+            writeValue(gen, model.getTags());
+        }
+        writeNonNull(gen, "groupId", model.getGroupId());
+        writeNonNull(gen, "assetId", model.getAssetId());
+        writeNonNull(gen, "version", model.getVersion());
+        writeNonNull(gen, "apiVersion", model.getApiVersion());
+        if (model.getDependencies() != null) {
+            gen.writeArrayFieldStart("dependencies");
+            for (ExchangeDependency dependency : model.getDependencies()) {
+                if (dependency == null) {
+                    gen.writeNull();
+                } else {
+                    writeDependency(dependency, gen);
+                }
+            }
+            gen.writeEndArray();
+        }
+        if (model.getMetadata() != null) {
+            gen.writeFieldName("metadata");
+            writeMetadata(model.getMetadata(), gen);
+        }
+        writeAdditionalProperties(gen, model.getAdditionalProperties());
+        gen.writeEndObject();
+    }
+
+    // ExchangeDependency: @JsonInclude(NON_DEFAULT), the defaults of every property are empty strings
+
+    private static List<ExchangeDependency> readDependencies(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(parser, JsonToken.START_ARRAY);
+        final List<ExchangeDependency> dependencies = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            dependencies.add(parser.currentToken() == JsonToken.VALUE_NULL ? null : readDependency(parser));
+        }
+        return dependencies;
+    }
+
+    private static ExchangeDependency readDependency(JsonParser parser) throws IOException {
+        expect(parser, JsonToken.START_OBJECT);
+        final ExchangeDependency dependency = new ExchangeDependency();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            parser.nextToken();
+            switch (name) {
+                case "groupId":
+                    dependency.setGroupId(readString(parser));
+                    break;
+                case "assetId":
+                    dependency.setAssetId(readString(parser));
+                    break;
+                case "version":
+                    dependency.setVersion(readString(parser));
+                    break;
+                case "scope":
+                    dependency.setScope(readString(parser));
+                    break;
+                case "classifier":
+                    dependency.setClassifier(readString(parser));
+                    break;
+                case "packaging":
+                    dependency.setPackaging(readString(parser));
+                    break;
+                default:
+                    dependency.setAdditionalProperty(name, readValue(parser));
+            }
+        }
+        return dependency;
+    }
+
+    private static void writeDependency(ExchangeDependency dependency, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        writeNonDefault(gen, "groupId", dependency.getGroupId());
+        writeNonDefault(gen, "assetId", dependency.getAssetId());
+        writeNonDefault(gen, "version", dependency.getVersion());
+        writeNonDefault(gen, "scope", dependency.getScope());
+        writeNonDefault(gen, "classifier", dependency.getClassifier());
+        writeNonDefault(gen, "packaging", dependency.getPackaging());
+        writeAdditionalProperties(gen, dependency.getAdditionalProperties());
+        gen.writeEndObject();
+    }
+
+    // ExchangeMetadata: @JsonInclude(NON_NULL)
+
+    private static ExchangeMetadata readMetadata(JsonParser parser) throws IOException {
+        expect(parser, JsonToken.START_OBJECT);
+        final ExchangeMetadata metadata = new ExchangeMetadata();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            parser.nextToken();
+            switch (name) {
+                case "projectId":
+                    metadata.setProjectId(readString(parser));
+                    break;
+                case "branchId":
+                    metadata.setBranchId(readString(parser));
+                    break;
+                case "commitId":
+                    metadata.setCommitId(readString(parser));
+                    break;
+                default:
+                    metadata.setAdditionalProperty(name, readValue(parser));
+            }
+        }
+        return metadata;
+    }
+
+    private static void writeMetadata(ExchangeMetadata metadata, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        writeNonNull(gen, "projectId", metadata.getProjectId());
+        writeNonNull(gen, "branchId", metadata.getBranchId());
+        writeNonNull(gen, "commitId", metadata.getCommitId());
+        writeAdditionalProperties(gen, metadata.getAdditionalProperties());
+        gen.writeEndObject();
+    }
+
+    // helpers
+
+    private static void expect(JsonParser parser, JsonToken expected) throws IOException {
+        if (parser.currentToken() != expected) {
+            throw new JsonParseException(parser, String.format("Expected %s but found %s", expected, parser.currentToken()));
+        }
+    }
+
+    /**
+     * Same coercion databind applies to {@code String} properties: scalars are taken as text, null stays null.
+     */
+    private static String readString(JsonParser parser) throws IOException {
+        final JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            throw new JsonParseException(parser, String.format("Cannot read a String out of %s", token));
+        }
+        return parser.getValueAsString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> readList(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(parser, JsonToken.START_ARRAY);
+        return (List<Object>) readValue(parser);
+    }
+
+    /**
+     * Reads any JSON value into the same untyped representation databind uses for {@code Object}: maps, lists,
+     * strings, numbers, booleans and nulls.
+     */
+    private static Object readValue(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case START_OBJECT:
+                final Map<String, Object> map = new LinkedHashMap<>();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String name = parser.getCurrentName();
+                    parser.nextToken();
+                    map.put(name, readValue(parser));
+                }
+                return map;
+            case START_ARRAY:
+                final List<Object> list = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    list.add(readValue(parser));
+                }
+                return list;
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                return parser.getNumberValue();
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NULL:
+                return null;
+            default:
+                throw new JsonParseException(parser, String.format("Unexpected token %s", parser.currentToken()));
+        }
+    }
+
+    private static void writeValue(JsonGenerator gen, Object value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else if (value instanceof String) {
+            gen.writeString((String) value);
+        } else if (value instanceof Map) {
+            gen.writeStartObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                gen.writeFieldName(String.valueOf(entry.getKey()));
+                writeValue(gen, entry.getValue());
+            }
+            gen.writeEndObject();
+        } else if (value instanceof Iterable) {
+            gen.writeStartArray();
+            for (Object item : (Iterable<?>) value) {
+                writeValue(gen, item);
+            }
+            gen.writeEndArray();
+        } else if (value instanceof Boolean) {
+            gen.writeBoolean((Boolean) value);
+        } else if (value instanceof Number) {
+            writeNumber(gen, (Number) value);
+        } else {
+            gen.writeString(value.toString());
+        }
+    }
+
+    private static void writeNumber(JsonGenerator gen, Number number) throws IOException {
+        if (number instanceof Integer || number instanceof Short || number instanceof Byte) {
+            gen.writeNumber(number.intValue());
+        } else if (number instanceof Long) {
+            gen.writeNumber(number.longValue());
+        } else if (number instanceof Double || number instanceof Float) {
+            gen.writeNumber(number.doubleValue());
+        } else if (number instanceof BigInteger) {
+            gen.writeNumber((BigInteger) number);
+        } else if (number instanceof BigDecimal) {
+            gen.writeNumber((BigDecimal) number);
+        } else {
+            gen.writeNumber(number.toString());
+        }
+    }
+
+    private static void writeAdditionalProperties(JsonGenerator gen, Map<String, Object> additionalProperties) throws IOException {
+        if (additionalProperties != null) {
+            for (Map.Entry<String, Object> entry : additionalProperties.entrySet()) {
+                gen.writeFieldName(entry.getKey());
+                writeValue(gen, entry.getValue());
+            }
+        }
+    }
+
+    private static void writeNonNull(JsonGenerator gen, String name, String value) throws IOException {
+        if (value != null) {
+            gen.writeStringField(name, value);
+        }
+    }
+
+    private static void writeNonDefault(JsonGenerator gen, String name, String value) throws IOException {
+        if (!"".equals(value)) {
+            gen.writeStringField(name, value);
+        }
+    }
+}
@@ -15,6 +15,23 @@ public class ApiProjectConstants {
     public static final String MAVEN_SKIP_REST_CONNECT = "exchange.maven.restConnect.skip";
     public static final String MAVEN_SKIP_VALIDATE_API = "exchange.maven.validateApi.skip";
     public static final String MAVEN_EXCLUDE_FILES = "exchange.maven.files.excludeHidden";
+    public static final String MAVEN_FULL_API_THREADS = "exchange.maven.fullApi.threads";
+    public static final String MAVEN_FULL_API_CACHE = "exchange.maven.fullApi.cache";
+    public static final String MAVEN_FULL_API_CACHE_DIRECTORY = "exchange.maven.fullApi.cache.directory";
+    public static final String MAVEN_FULL_API_CACHE_MAX_SIZE = "exchange.maven.fullApi.cache.maxSize";
+    public static final String MAVEN_PACKAGE_THREADS = "exchange.maven.package.threads";
+    public static final String MAVEN_PACKAGE_FORCE = "exchange.maven.package.force";
+    public static final String MAVEN_PACKAGE_REPRODUCIBLE = "exchange.maven.package.reproducible";
+    public static final String MAVEN_PACKAGE_STORED_EXTENSIONS = "exchange.maven.package.storedExtensions";
+    public static final String MAVEN_PACKAGE_COMPRESSION_LEVEL = "exchange.maven.package.compressionLevel";
+    public static final String MAVEN_PACKAGE_COMPRESSION_STRATEGY = "exchange.maven.package.compressionStrategy";
+    public static final String MAVEN_PACKAGE_MIN_COMPRESSION_RATIO = "exchange.maven.package.minCompressionRatio";
+    public static final String MAVEN_PACKAGE_STREAMING = "exchange.maven.package.streaming";
+    public static final String MAVEN_PACKAGE_TAR_ZST = "exchange.maven.package.tarZst";
+    public static final String MAVEN_PACKAGE_MAX_SIZE = "exchange.maven.package.maxSize";
+    public static final String MAVEN_PACKAGE_MAX_ENTRIES = "exchange.maven.package.maxEntries";
+    public static final String MAVEN_PACKAGE_FAIL_ON_EXCEEDED_BUDGET = "exchange.maven.package.failOnExceededBudget";
+    public static final String MAVEN_NESTED_BUILD = "exchange.maven.nestedBuild";
     public static final String REST_CONNECT_OUTPUTDIR = "rest_connect_workdir";
 
     public static File getFatApiDirectory(File buildDirectory) {
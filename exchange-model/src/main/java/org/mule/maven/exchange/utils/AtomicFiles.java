@@ -0,0 +1,55 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Writes of the files generated by the build (".exchange.xml", exchange.json, cached models) shared by the polyglot
+ * extension and the packager.
+ */
+public class AtomicFiles {
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * Writes through a sibling temporal file that is then moved over {@code file}, so concurrent readers never see a
+     * partially written file and an interrupted build never leaves a truncated one behind.
+     */
+    public static void write(File file, byte[] content) throws IOException {
+        final Path target = file.toPath();
+        final Path temporal = Files.createTempFile(target.toAbsolutePath().getParent(), file.getName(), ".tmp");
+        try {
+            Files.write(temporal, content);
+            try {
+                Files.move(temporal, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporal, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /**
+     * Writes {@code content} to {@code file} only if it's not already there, so that the modification time of the
+     * file (watched by IDEs, incremental compilers and build caches) only changes when the content does.
+     *
+     * @return true if the file was written
+     */
+    public static boolean writeIfChanged(File file, byte[] content) throws IOException {
+        if (file.isFile() && file.length() == content.length && Arrays.equals(Files.readAllBytes(file.toPath()), content)) {
+            return false;
+        }
+        write(file, content);
+        return true;
+    }
+}
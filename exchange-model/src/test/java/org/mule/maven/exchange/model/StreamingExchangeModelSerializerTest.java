@@ -0,0 +1,161 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange.model;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Checks that {@link StreamingExchangeModelSerializer} reads and writes exactly what the databind backend of
+ * {@link ExchangeModelSerializer} does.
+ */
+public class StreamingExchangeModelSerializerTest {
+
+    private static final String FULL = "{\"main\": \"api.raml\", \"name\": \"My API\", \"classifier\": \"raml\", \"tags\": [\"a\", 1, null]," +
+            " \"groupId\": \"org.test\", \"assetId\": \"my-api\", \"version\": \"1.0.0\", \"apiVersion\": \"v1\"," +
+            " \"dependencies\": [{\"groupId\": \"org.test\", \"assetId\": \"library\", \"version\": \"1.0.0\", \"scope\": \"validation\"," +
+            " \"classifier\": \"ruleset\", \"packaging\": \"zip\"}]," +
+            " \"metadata\": {\"projectId\": \"p\", \"branchId\": \"master\", \"commitId\": \"c0ffee\", \"extra\": true}," +
+            " \"descriptorVersion\": \"1.0.0\", \"originalFormatVersion\": \"1.0\"}";
+
+    private static final String MINIMAL = "{\"main\": \"api.raml\", \"name\": \"My API\"}";
+
+    /**
+     * Unknown properties of every kind, at the top level and within dependencies and metadata.
+     */
+    private static final String UNKNOWN_PROPERTIES = "{\"name\": \"My API\", \"int\": 1, \"long\": 12345678901, " +
+            "\"bigInteger\": 123456789012345678901234567890, \"negative\": -7, \"double\": 1.5, \"exponent\": 1e3, " +
+            "\"true\": true, \"false\": false, \"null\": null, \"object\": {\"b\": [1, {\"c\": \"d\"}], \"a\": 2.25}, \"array\": [[], {}], " +
+            "\"dependencies\": [{\"groupId\": \"org.test\", \"assetId\": \"library\", \"version\": \"1.0.0\", \"optional\": false, \"weight\": 0.5}]," +
+            " \"metadata\": {\"extra\": {\"nested\": [1, 2]}}}";
+
+    /**
+     * Dependencies with explicitly empty and null properties, plus null items, which NON_DEFAULT treats differently.
+     */
+    private static final String DEPENDENCY_FIELDS = "{\"name\": \"My API\", \"dependencies\": [" +
+            "{\"groupId\": \"org.test\", \"assetId\": \"library\", \"version\": \"1.0.0\", \"scope\": \"\", \"classifier\": null}," +
+            " {\"assetId\": \"only-asset\"}, {}, null]}";
+
+    /**
+     * Properties explicitly set to null.
+     */
+    private static final String NULLS = "{\"main\": null, \"name\": \"My API\", \"tags\": null, \"groupId\": null, " +
+            "\"dependencies\": null, \"metadata\": null}";
+
+    private static final List<String> DOCUMENTS = Arrays.asList(FULL, MINIMAL, UNKNOWN_PROPERTIES, DEPENDENCY_FIELDS, NULLS);
+
+    @Test
+    public void writesTheSameIndentedJsonAsDatabind() throws IOException {
+        assertSameOutput(new ExchangeModelSerializer(), new StreamingExchangeModelSerializer());
+    }
+
+    @Test
+    public void writesTheSameMinifiedJsonAsDatabind() throws IOException {
+        final ExchangeModelSerializer databind = new ExchangeModelSerializer();
+        databind.indent(false);
+        final ExchangeModelSerializer streaming = new StreamingExchangeModelSerializer();
+        streaming.indent(false);
+        assertSameOutput(databind, streaming);
+    }
+
+    @Test
+    public void readsTheSameModelAsDatabind() throws IOException {
+        final ExchangeModelSerializer databind = new ExchangeModelSerializer();
+        final ExchangeModelSerializer streaming = new StreamingExchangeModelSerializer();
+        for (String document : DOCUMENTS) {
+            final ExchangeModel expected = databind.read(new StringReader(document));
+            final ExchangeModel actual = streaming.read(new StringReader(document));
+            assertEquals(document, expected, actual);
+            assertEquals(document, expected.getAdditionalProperties(), actual.getAdditionalProperties());
+            if (expected.getDependencies() != null) {
+                for (int i = 0; i < expected.getDependencies().size(); i++) {
+                    final ExchangeDependency expectedDependency = expected.getDependencies().get(i);
+                    final ExchangeDependency actualDependency = actual.getDependencies().get(i);
+                    // equals() of dependencies ignores scope, classifier and packaging
+                    assertEquals(document, String.valueOf(expectedDependency), String.valueOf(actualDependency));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void roundTripsEveryDocument() throws IOException {
+        final ExchangeModelSerializer databind = new ExchangeModelSerializer();
+        final ExchangeModelSerializer streaming = new StreamingExchangeModelSerializer();
+        for (String document : DOCUMENTS) {
+            final ExchangeModel model = streaming.read(new StringReader(document));
+            final String written = write(streaming, model);
+            final ExchangeModel readBack = streaming.read(new StringReader(written));
+            if (!document.equals(NULLS)) {
+                assertEquals(document, model, readBack);
+                assertEquals(document, written, write(streaming, readBack));
+            }
+            // explicit nulls are dropped on write, so their defaults come back when reading the output, as with databind
+            assertEquals(document, write(databind, databind.read(new StringReader(written))), write(streaming, readBack));
+        }
+    }
+
+    @Test
+    public void keepsTheTypeOfNumbers() throws IOException {
+        final ExchangeModel model = new StreamingExchangeModelSerializer().read(new StringReader(UNKNOWN_PROPERTIES));
+
+        assertEquals(1, model.getAdditionalProperties().get("int"));
+        assertEquals(12345678901L, model.getAdditionalProperties().get("long"));
+        assertEquals(new BigInteger("123456789012345678901234567890"), model.getAdditionalProperties().get("bigInteger"));
+        assertEquals(1.5d, model.getAdditionalProperties().get("double"));
+        assertEquals(1000d, model.getAdditionalProperties().get("exponent"));
+        assertEquals(2.25d, ((Map<?, ?>) model.getAdditionalProperties().get("object")).get("a"));
+    }
+
+    @Test
+    public void writesOnlyTheNonDefaultPropertiesOfDependencies() throws IOException {
+        final ExchangeModelSerializer streaming = new StreamingExchangeModelSerializer();
+        streaming.indent(false);
+
+        final ExchangeModel model = streaming.read(new StringReader(DEPENDENCY_FIELDS));
+
+        assertNull(model.getDependencies().get(0).getClassifier());
+        assertEquals("{\"main\":\"\",\"name\":\"My API\",\"classifier\":\"\",\"groupId\":\"\",\"assetId\":\"\",\"version\":\"\",\"apiVersion\":\"\"," +
+                        "\"dependencies\":[{\"groupId\":\"org.test\",\"assetId\":\"library\",\"version\":\"1.0.0\",\"classifier\":null}," +
+                        "{\"assetId\":\"only-asset\"},{},null]}",
+                write(streaming, model));
+    }
+
+    private static void assertSameOutput(ExchangeModelSerializer databind, ExchangeModelSerializer streaming) throws IOException {
+        for (String document : DOCUMENTS) {
+            final ExchangeModel model = databind.read(new StringReader(document));
+            final byte[] expected = writeBytes(databind, model);
+            assertArrayEquals(document, expected, writeBytes(streaming, model));
+            assertArrayEquals(document, expected, writeBytes(streaming, streaming.read(new StringReader(document))));
+            assertEquals(document, write(databind, model), write(streaming, model));
+        }
+    }
+
+    private static byte[] writeBytes(ExchangeModelSerializer serializer, ExchangeModel model) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        serializer.write(model, output);
+        return output.toByteArray();
+    }
+
+    private static String write(ExchangeModelSerializer serializer, ExchangeModel model) throws IOException {
+        final StringWriter output = new StringWriter();
+        serializer.write(model, output);
+        final String written = output.toString();
+        assertEquals(written, new String(writeBytes(serializer, model), StandardCharsets.UTF_8));
+        return written;
+    }
+}
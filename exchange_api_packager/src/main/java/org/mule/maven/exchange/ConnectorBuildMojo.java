@@ -0,0 +1,166 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange;
+
+import org.apache.maven.Maven;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.LegacySupport;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.transfer.project.deploy.ProjectDeployer;
+import org.apache.maven.shared.transfer.project.deploy.ProjectDeployerRequest;
+import org.apache.maven.shared.transfer.project.install.ProjectInstaller;
+import org.apache.maven.shared.transfer.project.install.ProjectInstallerRequest;
+import org.mule.maven.exchange.utils.ApiProjectConstants;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Properties;
+
+/**
+ * Builds the connector generated by the `rest-connect` goal within the running Maven, instead of forking a new build
+ * per lifecycle phase with the maven-invoker-plugin. The connector is packaged once per session, the first time this
+ * goal runs (usually on `install`), and the resulting project is kept in the plugin context so that the `deploy`
+ * execution uploads the very same artifacts.
+ */
+@Mojo(name = "build-connector", defaultPhase = LifecyclePhase.INSTALL)
+public class ConnectorBuildMojo extends AbstractMojo {
+
+    private static final String CONNECTOR_PROJECT_CONTEXT_KEY = ConnectorBuildMojo.class.getName() + ".connectorProject";
+
+    @Component
+    private MavenProject project;
+
+    @Component
+    private MavenSession mavenSession;
+
+    @Component
+    private Maven maven;
+
+    @Component
+    private LegacySupport legacySupport;
+
+    @Component
+    private ProjectInstaller projectInstaller;
+
+    @Component
+    private ProjectDeployer projectDeployer;
+
+    /**
+     * POM of the project generated by the `rest-connect` goal
+     */
+    @Parameter(defaultValue = "${project.build.directory}/" + ApiProjectConstants.REST_CONNECT_OUTPUTDIR + "/pom.xml")
+    private File connectorPom;
+
+    /**
+     * deploys the connector (reusing the one already built in the session, if any) instead of installing it
+     */
+    @Parameter(defaultValue = "false")
+    private boolean deploy;
+
+    /**
+     * property to skip the complete connector generation
+     */
+    @Parameter(property = ApiProjectConstants.MAVEN_SKIP_REST_CONNECT, defaultValue = "false")
+    private boolean skipRestConnect;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        if (skipRestConnect) {
+            getLog().info("Disabling connector build..");
+            return;
+        }
+        if (!connectorPom.exists()) {
+            getLog().info(String.format("Skipping connector build, there's no generated connector under [%s]", connectorPom.getParentFile().getAbsolutePath()));
+            return;
+        }
+
+        final MavenProject connectorProject = getConnectorProject();
+        try {
+            if (deploy) {
+                final ArtifactRepository repository = getDeploymentRepository(connectorProject);
+                getLog().info(String.format("Deploying connector [%s] to [%s]", connectorProject.getId(), repository.getUrl()));
+                projectDeployer.deploy(mavenSession.getProjectBuildingRequest(), new ProjectDeployerRequest().setProject(connectorProject), repository);
+            } else {
+                getLog().info(String.format("Installing connector [%s]", connectorProject.getId()));
+                projectInstaller.install(mavenSession.getProjectBuildingRequest(), new ProjectInstallerRequest().setProject(connectorProject));
+            }
+        } catch (Exception e) {
+            throw new MojoExecutionException(String.format("Exception while trying to %s the connector [%s]", deploy ? "deploy" : "install", connectorProject.getId()), e);
+        }
+    }
+
+    /**
+     * @return the connector project, packaging it if it wasn't already built by a previous execution of this goal
+     */
+    @SuppressWarnings("unchecked")
+    private MavenProject getConnectorProject() throws MojoExecutionException {
+        final MavenProject built = (MavenProject) getPluginContext().get(CONNECTOR_PROJECT_CONTEXT_KEY);
+        if (built != null) {
+            getLog().info(String.format("Reusing connector [%s] built in this session", built.getId()));
+            return built;
+        }
+
+        getLog().info(String.format("Building connector from [%s]", connectorPom.getAbsolutePath()));
+        final MavenExecutionResult result;
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            result = maven.execute(newConnectorRequest(mavenSession.getRequest(), connectorPom));
+        } finally {
+            // the nested build replaces (and finally clears) the session seen by legacy components
+            legacySupport.setSession(mavenSession);
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
+        }
+        if (result.hasExceptions()) {
+            throw new MojoExecutionException(String.format("Connector build failed for [%s]", connectorPom.getAbsolutePath()), result.getExceptions().get(0));
+        }
+        final MavenProject connectorProject = result.getProject();
+        getPluginContext().put(CONNECTOR_PROJECT_CONTEXT_KEY, connectorProject);
+        return connectorProject;
+    }
+
+    /**
+     * @return a request to package the connector, derived from the one of the running build
+     */
+    static MavenExecutionRequest newConnectorRequest(MavenExecutionRequest outerRequest, File connectorPom) {
+        final MavenExecutionRequest request = DefaultMavenExecutionRequest.copy(outerRequest);
+        request.setPom(connectorPom);
+        request.setBaseDirectory(connectorPom.getParentFile());
+        request.setGoals(Collections.singletonList("package"));
+        request.setSelectedProjects(Collections.emptyList());
+        request.setResumeFrom(null);
+        request.setMakeBehavior(null);
+        // make the connector build a little bit faster by skipping docs and extension model generation
+        final Properties userProperties = new Properties();
+        userProperties.putAll(outerRequest.getUserProperties());
+        userProperties.setProperty("skipDocumentation", "true");
+        userProperties.setProperty("mule.maven.extension.model.disable", "true");
+        // lets the core extensions tell the nested session apart from the one of the running build
+        userProperties.setProperty(ApiProjectConstants.MAVEN_NESTED_BUILD, "true");
+        request.setUserProperties(userProperties);
+        return request;
+    }
+
+    private ArtifactRepository getDeploymentRepository(MavenProject connectorProject) throws MojoExecutionException {
+        ArtifactRepository repository = connectorProject.getDistributionManagementArtifactRepository();
+        if (repository == null) {
+            // the generated connector usually doesn't declare where to be deployed, it goes along with the API
+            repository = project.getDistributionManagementArtifactRepository();
+        }
+        if (repository == null) {
+            throw new MojoExecutionException(String.format("Can't deploy connector [%s], neither the connector nor [%s] declare a distributionManagement repository",
+                    connectorProject.getId(), project.getId()));
+        }
+        return repository;
+    }
+}
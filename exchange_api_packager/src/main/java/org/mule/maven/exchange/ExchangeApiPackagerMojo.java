@@ -3,10 +3,11 @@
  */
 package org.mule.maven.exchange;
 
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.apache.commons.io.filefilter.TrueFileFilter;
-import org.apache.maven.execution.MavenSession;
+import org.apache.commons.lang.StringUtils;
+import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.AbstractMojo;
-import org.apache.maven.plugin.BuildPluginManager;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Component;
@@ -19,16 +20,37 @@ import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.MavenProjectHelper;
 import org.mule.maven.exchange.model.ExchangeModel;
 import org.mule.maven.exchange.model.ExchangeModelSerializer;
+import org.mule.maven.exchange.model.StreamingExchangeModelSerializer;
 import org.mule.maven.exchange.utils.ApiProjectConstants;
 
+import org.mule.maven.exchange.utils.ArchiveManifest;
+import org.mule.maven.exchange.utils.ArchiveReport;
+import org.mule.maven.exchange.utils.ArchiveSource;
+import org.mule.maven.exchange.utils.Archives;
+import org.mule.maven.exchange.utils.CompressionPolicy;
+import org.mule.maven.exchange.utils.PackagedDependencies;
+import org.mule.maven.exchange.utils.ParallelZipWriter;
+import org.mule.maven.exchange.utils.TarZstWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileFilter;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
 
+import static org.mule.maven.exchange.utils.ApiProjectConstants.EXCHANGE_MODULES;
 import static org.mule.maven.exchange.utils.ApiProjectConstants.getFatApiDirectory;
 
 @Mojo(name = "package-api", defaultPhase = LifecyclePhase.PACKAGE, requiresDependencyCollection = ResolutionScope.COMPILE_PLUS_RUNTIME, requiresDependencyResolution = ResolutionScope.COMPILE_PLUS_RUNTIME)
@@ -37,6 +59,14 @@ public class ExchangeApiPackagerMojo extends AbstractMojo {
 
 
     private static final String EXCHANGE_JSON = "exchange.json";
+    private static final String MANIFEST_EXTENSION = ".manifest";
+    private static final String TAR_ZST_TYPE = "tar.zst";
+    private static final String REPORT_EXTENSION = ".report.json";
+
+    /**
+     * Time of the entries of reproducible zips when there's no `project.build.outputTimestamp` (2000-01-01T00:00:00Z)
+     */
+    private static final long DEFAULT_REPRODUCIBLE_TIME = 946684800000L;
 
     /**
      * Injected by Maven so that forked process can be
@@ -45,38 +75,222 @@ public class ExchangeApiPackagerMojo extends AbstractMojo {
     @Component
     private MavenProject project;
 
-    @Component
-    private MavenSession mavenSession;
-
-    @Component
-    private BuildPluginManager pluginManager;
-
     @Component
     protected MavenProjectHelper helper;
 
     @Parameter(defaultValue = "raml")
     private String classifier;
 
+    /**
+     * main file of the spec (same value of the "main" attribute of the exchange.json file), placed right after the
+     * exchange.json file in reproducible zips
+     */
+    @Parameter
+    private String mainFile;
+
     /**
      * property to avoid packaging hidden files
      */
     @Parameter(property = ApiProjectConstants.MAVEN_EXCLUDE_FILES, defaultValue = "false")
     private boolean excludeHiddenFiles;
 
+    /**
+     * number of threads used to deflate the entries of the zips, 0 (the default) means one per available processor
+     */
+    @Parameter(property = ApiProjectConstants.MAVEN_PACKAGE_THREADS, defaultValue = "0")
+    private int threads;
+
+    /**
+     * property to generate the zips even if their inputs didn't change since the previous build
+     */
+    @Parameter(property = ApiProjectConstants.MAVEN_PACKAGE_FORCE, defaultValue = "false")
+    private boolean forcePackaging;
+
+    /**
+     * property to generate reproducible zips: the same inputs always produce the same bytes. Entries are sorted by name
+     * (with the exchange.json and {@link #mainFile} files first), timestamped with {@link #outputTimestamp} and get
+     * normalized permissions. It's enabled by default when {@link #outputTimestamp} is set, as other Maven plugins do.
+     */
+    @Parameter(property = ApiProjectConstants.MAVEN_PACKAGE_REPRODUCIBLE, defaultValue = "false")
+    private boolean reproducible;
+
+    /**
+     * timestamp of the entries of reproducible zips, either in ISO-8601 format or as seconds since the epoch
+     */
+    @Parameter(defaultValue = "${project.build.outputTimestamp}")
+    private String outputTimestamp;
+
+    /**
+     * comma separated extensions of already compressed files, that are STORED in the zips instead of deflated
+     */
+    @Parameter(property = ApiProjectConstants.MAVEN_PACKAGE_STORED_EXTENSIONS, defaultValue = CompressionPolicy.DEFAULT_STORED_EXTENSIONS)
+    private String storedExtensions;
+
+    /**
+     * Deflater level (0-9, -1 for the default one) of the entries
+     */
+    @Parameter(property = ApiProjectConstants.MAVEN_PACKAGE_COMPRESSION_LEVEL, defaultValue = "-1")
+    private int compressionLevel;
+
+    /**
+     * Deflater strategy of the entries, one of `default`, `filtered` or `huffman_only`
+     */
+    @Parameter(property = ApiProjectConstants.MAVEN_PACKAGE_COMPRESSION_STRATEGY, defaultValue = "default")
+    private String compressionStrategy;
+
+    /**
+     * entries whose compressed size (estimated on a sample for big ones) is bigger than this ratio of their size are
+     * STORED, as deflating them is a waste of time
+     */
+    @Parameter(property = ApiProjectConstants.MAVEN_PACKAGE_MIN_COMPRESSION_RATIO, defaultValue = "" + CompressionPolicy.DEFAULT_MIN_RATIO)
+    private double minCompressionRatio;
+
+    /**
+     * property to build the fat zip straight from the zips of the dependencies, copying their entries as they are
+     * compressed (under `exchange_modules/groupId/assetId/version`) instead of deflating again the expanded ones of
+     * the `full_api` directory
+     */
+    @Parameter(property = ApiProjectConstants.MAVEN_PACKAGE_STREAMING, defaultValue = "false")
+    private boolean streamingFatApi;
+
+    /**
+     * property to also attach the fat API as a Zstandard compressed tar (`fat-classifier` artifact of `tar.zst` type),
+     * built from the same entries of the fat zip, for consumers that extract the whole archive
+     */
+    @Parameter(property = ApiProjectConstants.MAVEN_PACKAGE_TAR_ZST, defaultValue = "false")
+    private boolean tarZstFatApi;
+
+    /**
+     * size budget in bytes of the fat zip, 0 (the default) means no budget. See {@link #failOnExceededBudget}
+     */
+    @Parameter(property = ApiProjectConstants.MAVEN_PACKAGE_MAX_SIZE, defaultValue = "0")
+    private long maxFatApiSize;
+
+    /**
+     * entries budget of the fat zip, 0 (the default) means no budget. See {@link #failOnExceededBudget}
+     */
+    @Parameter(property = ApiProjectConstants.MAVEN_PACKAGE_MAX_ENTRIES, defaultValue = "0")
+    private long maxFatApiEntries;
+
+    /**
+     * property to fail the build when the fat zip exceeds its budgets, instead of just warning about it
+     */
+    @Parameter(property = ApiProjectConstants.MAVEN_PACKAGE_FAIL_ON_EXCEEDED_BUDGET, defaultValue = "false")
+    private boolean failOnExceededBudget;
+
+    /**
+     * version of this plugin, a new one may generate different archives out of the same inputs
+     */
+    @Parameter(defaultValue = "${plugin.version}", readonly = true)
+    private String pluginVersion;
+
+    /**
+     * Serializer used to minify the exchange.json file, see {@link #tamperFileIfExchangeJson(File, boolean)}
+     */
+    private final ExchangeModelSerializer minifyingSerializer = createMinifyingSerializer();
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
         final File sourceDirectory = new File(project.getBuild().getSourceDirectory());
         final File buildDirectory = new File(project.getBuild().getDirectory());
         final File apiZip = new File(buildDirectory, getFileName());
-        createZip(sourceDirectory, new ApiSourceFileFilter(sourceDirectory, buildDirectory), apiZip);
-        //create simple zip
-        helper.attachArtifact(project, getType(), getClassifier(), apiZip);
-
-        //create full zip
         final String fatFileName = getFatFileName(project, getClassifier(), getType());
         final File fatApiZip = new File(buildDirectory, fatFileName);
-        createZip(getFatApiDirectory(buildDirectory), TrueFileFilter.INSTANCE, fatApiZip);
+        final File fatApiTar = new File(buildDirectory, getFatFileName(project, getClassifier(), TAR_ZST_TYPE));
+        final File[] archives = tarZstFatApi ? new File[]{apiZip, fatApiZip, fatApiTar} : new File[]{apiZip, fatApiZip};
+        final File exchangeModulesDirectory = new File(getFatApiDirectory(buildDirectory), EXCHANGE_MODULES);
+        final File manifestFile = new File(buildDirectory, getFileName() + MANIFEST_EXTENSION);
+        final File reportFile = new File(buildDirectory, getFileName() + REPORT_EXTENSION);
+        final int writerThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        final long start = System.nanoTime();
+        try {
+            // the fat API holds a copy of the sources (see `generate-full-api`), so they are read and deflated once
+            // from the source directory and copied raw into both zips
+            final List<ArchiveSource> sources = new ArrayList<>();
+            collectSources(sourceDirectory, new ApiSourceFileFilter(sourceDirectory, buildDirectory), null, false, sources);
+            if (streamingFatApi) {
+                collectDependencies(sources);
+            } else {
+                collectSources(exchangeModulesDirectory, TrueFileFilter.INSTANCE, EXCHANGE_MODULES, true, sources);
+            }
+
+            final Long fixedTime = getReproducibleTime();
+            final CompressionPolicy compressionPolicy = createCompressionPolicy();
+            if (fixedTime != null) {
+                sources.sort(reproducibleOrder());
+            }
+
+            final ArchiveManifest previousManifest = forcePackaging ? null : ArchiveManifest.read(manifestFile);
+            final ArchiveManifest manifest = ArchiveManifest.create(sources, getManifestSettings(fixedTime, compressionPolicy), previousManifest, writerThreads);
+            final String changeReason = forcePackaging ? String.format("parameterized '-D%s=true'", ApiProjectConstants.MAVEN_PACKAGE_FORCE)
+                    : manifest.getChangeReason(previousManifest, archives);
+            if (changeReason == null) {
+                getLog().info(String.format("Skipping generation of zip files [%s] and [%s], their inputs didn't change since the previous build",
+                        apiZip.getName(), fatApiZip.getName()));
+            } else {
+                getLog().info(String.format("Generating zip files [%s] and [%s], %s", apiZip.getName(), fatApiZip.getName(), changeReason));
+                Files.deleteIfExists(manifestFile.toPath());
+                int rawEntries = 0;
+                final ArchiveReport report = new ArchiveReport();
+                try (ZipArchiveOutputStream zip = new ZipArchiveOutputStream(apiZip);
+                     ZipArchiveOutputStream fatZip = new ZipArchiveOutputStream(fatApiZip);
+                     TarZstWriter fatTar = tarZstFatApi ? new TarZstWriter(fatApiTar) : null;
+                     ParallelZipWriter writer = new ParallelZipWriter(writerThreads, fixedTime, compressionPolicy)) {
+                    // every entry goes into the fat zip
+                    writer.setListener(report);
+                    final Map<String, List<File>> zippedFolders = getZippedFolders(sources);
+                    for (ArchiveSource source : sources) {
+                        if (source.isZipped()) {
+                            // the zips sharing the folder are copied together, on its first source
+                            final List<File> folderZips = zippedFolders.remove(source.getName());
+                            if (folderZips != null) {
+                                rawEntries += writer.addRawEntries(source.getName(), folderZips, this::isPackagedEntry, fixedTime != null, fatTar, fatZip);
+                            }
+                        } else {
+                            addZipEntry(source, writer, fatTar, source.isFatOnly() ? new ZipArchiveOutputStream[]{fatZip} : new ZipArchiveOutputStream[]{zip, fatZip});
+                        }
+                    }
+                    writer.flush();
+                    if (fatTar != null) {
+                        fatTar.finish();
+                    }
+                }
+                final long timeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                final List<String> exceededBudgets = getExceededBudgets(fatApiZip, report.getEntries());
+                final Map<String, Long> archiveSizes = new LinkedHashMap<>();
+                for (File archive : archives) {
+                    archiveSizes.put(archive.getName(), archive.length());
+                }
+                report.write(reportFile, getProjectGav(), archiveSizes, timeMillis, exceededBudgets);
+                if (!exceededBudgets.isEmpty()) {
+                    // without the manifest, the archives are checked again on the next build
+                    if (failOnExceededBudget) {
+                        throw new MojoFailureException(String.format("Fat API %s, see [%s]", String.join(" and ", exceededBudgets), reportFile.getName()));
+                    }
+                    exceededBudgets.forEach(exceededBudget -> getLog().warn(String.format("Fat API %s, see [%s]", exceededBudget, reportFile.getName())));
+                }
+                manifest.write(manifestFile, archives);
+                getLog().info(String.format("Zip files [%s] and [%s] generated in %d ms (%d threads), report at [%s]", apiZip.getName(), fatApiZip.getName(),
+                        timeMillis, writerThreads, reportFile.getName()));
+                getLog().info(String.format("Compression of zip entries: %s", compressionPolicy.getSummary()));
+                if (streamingFatApi) {
+                    getLog().info(String.format("Copied %d entries of the dependencies without recompressing them", rawEntries));
+                }
+                if (tarZstFatApi) {
+                    getLog().info(String.format("Fat API [%s] takes %d bytes, [%s] takes %d bytes", fatApiZip.getName(), fatApiZip.length(),
+                            fatApiTar.getName(), fatApiTar.length()));
+                }
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Exception while generating zip file", e);
+        }
+        //attach simple zip
+        helper.attachArtifact(project, getType(), getClassifier(), apiZip);
+        //attach full zip
         helper.attachArtifact(project, getType(), createFatClassifier(getClassifier()), fatApiZip);
+        if (tarZstFatApi) {
+            helper.attachArtifact(project, TAR_ZST_TYPE, createFatClassifier(getClassifier()), fatApiTar);
+        }
     }
 
     /**
@@ -95,17 +309,6 @@ public class ExchangeApiPackagerMojo extends AbstractMojo {
         return "fat-" + classifier;
     }
 
-    private void createZip(File sourceDir, FileFilter fileFilter, File zipFile) throws MojoExecutionException {
-        try {
-            try (FileOutputStream fileWriter = new FileOutputStream(zipFile);
-                 ZipOutputStream zip = new ZipOutputStream(fileWriter)) {
-                addZipEntries(sourceDir, fileFilter, zip, null, excludeHiddenFiles);
-            }
-        } catch (IOException e) {
-            throw new MojoExecutionException("Exception while generating zip file", e);
-        }
-    }
-
     public String getType() {
         return "zip";
     }
@@ -114,32 +317,166 @@ public class ExchangeApiPackagerMojo extends AbstractMojo {
         return classifier;
     }
 
-    private void addZipEntries(File sourceDir, FileFilter fileFilter, ZipOutputStream zip, String basePath, boolean excludeHiddenFiles) throws IOException {
-        final File[] files = sourceDir.listFiles(fileFilter);
-        if (files != null) {
-            for (File file : files) {
-                if (excludeHiddenFiles && isHiddenFile(file.getName())) {
-                    getLog().debug(String.format("excluded hidden file: `%s` from zip", file.getName()));
-                    continue; // avoid zipping hidden files
+    /**
+     * Collects every file under {@code sourceDir} to be archived, in traversal order.
+     */
+    private void collectSources(File sourceDir, FileFilter fileFilter, String basePath, boolean fatOnly, List<ArchiveSource> sources) throws IOException {
+        final FileFilter filter = file -> {
+            if (!fileFilter.accept(file)) {
+                return false;
+            }
+            if (excludeHiddenFiles && isHiddenFile(file.getName())) {
+                getLog().debug(String.format("excluded hidden file: `%s` from zip", file.getName()));
+                return false; // avoid zipping hidden files
+            }
+            return true;
+        };
+        for (Path file : Archives.listFiles(sourceDir, filter)) {
+            final String name = Archives.toEntryName(file);
+            sources.add(new ArchiveSource(basePath != null ? basePath + "/" + name : name, sourceDir.toPath().resolve(file).toFile(), fatOnly));
+        }
+    }
+
+    /**
+     * Collects the zips of the dependencies packaged within the fat API, whose entries are copied under the
+     * `exchange_modules/groupId/assetId/version` folder (with the groupId as is, as `generate-full-api` leaves it).
+     */
+    private void collectDependencies(List<ArchiveSource> sources) {
+        for (Map.Entry<String, List<Artifact>> folder : PackagedDependencies.byFolder(project).entrySet()) {
+            for (Artifact artifact : folder.getValue()) {
+                // keyed by the coordinates, classifier included, as the zips of several classifiers share the folder
+                sources.add(new ArchiveSource(folder.getKey(), artifact.getId(), artifact.getFile(), true, true));
+            }
+        }
+    }
+
+    /**
+     * @return the zips of the zipped {@code sources} by the folder their entries go into, in the order of the sources
+     */
+    private static Map<String, List<File>> getZippedFolders(List<ArchiveSource> sources) {
+        final Map<String, List<File>> folders = new LinkedHashMap<>();
+        for (ArchiveSource source : sources) {
+            if (source.isZipped()) {
+                folders.computeIfAbsent(source.getName(), folder -> new ArrayList<>()).add(source.getFile());
+            }
+        }
+        return folders;
+    }
+
+    /**
+     * @return false if the entry of a dependency zip must be left out of the fat zip, as its expanded file would be
+     */
+    private boolean isPackagedEntry(String entryName) {
+        if (excludeHiddenFiles) {
+            for (String element : entryName.split("/")) {
+                if (isHiddenFile(element)) {
+                    getLog().debug(String.format("excluded hidden file: `%s` from zip", entryName));
+                    return false;
                 }
-                final String name = basePath != null ? basePath + "/" + file.getName() : file.getName();
-                if (file.isDirectory()) {
-                    addZipEntries(file, fileFilter, zip, name, excludeHiddenFiles);
-                } else {
-                    // hack due to apikits issues while reading exchange.json file.
-                    file = tamperFileIfExchangeJson(file);
-                    try (FileInputStream in = new FileInputStream(file)) {
-                        final byte[] buf = new byte[1024];
-                        zip.putNextEntry(new ZipEntry(name));
-                        int len;
-                        while ((len = in.read(buf)) > 0) {
-                            zip.write(buf, 0, len);
-                        }
-                        zip.closeEntry();
-                    }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds the {@code source} to all the given {@code zips} (and to the fat {@code tar}, if any), deflating it only once
+     * (and concurrently with the rest of the files) through the {@code writer}.
+     */
+    private void addZipEntry(ArchiveSource source, ParallelZipWriter writer, TarZstWriter tar, ZipArchiveOutputStream... zips) throws IOException {
+        // only the exchange.json at the root of the sources describes the project being packaged
+        final boolean projectDescriptor = !source.isFatOnly() && source.getName().equals(EXCHANGE_JSON);
+        writer.add(source.getName(), source.getFile().length(), () -> {
+            // hack due to apikits issues while reading exchange.json file.
+            return tamperFileIfExchangeJson(source.getFile(), projectDescriptor);
+        }, tar, zips);
+    }
+
+    /**
+     * @return description of every budget exceeded by the {@code fatApiZip}, empty if there's none
+     */
+    private List<String> getExceededBudgets(File fatApiZip, long entries) {
+        final List<String> exceededBudgets = new ArrayList<>();
+        if (maxFatApiSize > 0 && fatApiZip.length() > maxFatApiSize) {
+            exceededBudgets.add(String.format("size of %d bytes exceeds the budget of %d bytes ('-D%s')", fatApiZip.length(), maxFatApiSize,
+                    ApiProjectConstants.MAVEN_PACKAGE_MAX_SIZE));
+        }
+        if (maxFatApiEntries > 0 && entries > maxFatApiEntries) {
+            exceededBudgets.add(String.format("%d entries exceed the budget of %d entries ('-D%s')", entries, maxFatApiEntries,
+                    ApiProjectConstants.MAVEN_PACKAGE_MAX_ENTRIES));
+        }
+        return exceededBudgets;
+    }
+
+    private CompressionPolicy createCompressionPolicy() throws MojoExecutionException {
+        try {
+            return new CompressionPolicy(storedExtensions, compressionLevel, compressionStrategy, minCompressionRatio);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the time of the entries of reproducible zips, or null if they are not reproducible
+     * @throws MojoExecutionException if {@link #outputTimestamp} can't be parsed
+     */
+    private Long getReproducibleTime() throws MojoExecutionException {
+        // as in the maven-archiver, a single character value (e.g. the inherited `${project.build.outputTimestamp}`
+        // set to "a") disables it
+        final boolean hasOutputTimestamp = outputTimestamp != null && outputTimestamp.length() > 1;
+        if (hasOutputTimestamp) {
+            try {
+                if (StringUtils.isNumeric(outputTimestamp)) {
+                    return TimeUnit.SECONDS.toMillis(Long.parseLong(outputTimestamp));
                 }
+                return OffsetDateTime.parse(outputTimestamp).toInstant().toEpochMilli();
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new MojoExecutionException(String.format("Invalid 'outputTimestamp' [%s], expected an ISO-8601 date or the number of seconds since the epoch",
+                        outputTimestamp), e);
             }
         }
+        return reproducible ? DEFAULT_REPRODUCIBLE_TIME : null;
+    }
+
+    /**
+     * @return the order of the entries in reproducible zips: the exchange.json file of the project, then its main file,
+     * and then the rest by name, so that consumers reading only the head of the archive find them right away
+     */
+    private Comparator<ArchiveSource> reproducibleOrder() {
+        final ToIntFunction<ArchiveSource> priority = source -> {
+            if (source.isFatOnly()) {
+                return 2;
+            } else if (source.getName().equals(EXCHANGE_JSON)) {
+                return 0;
+            } else if (source.getName().equals(mainFile)) {
+                return 1;
+            }
+            return 2;
+        };
+        return Comparator.comparingInt(priority).thenComparing(ArchiveSource::getName);
+    }
+
+    /**
+     * @return the configuration that changes the content of the zips, besides their sources
+     */
+    private Map<String, String> getManifestSettings(Long fixedTime, CompressionPolicy compressionPolicy) {
+        final Map<String, String> settings = new HashMap<>();
+        settings.put("pluginVersion", String.valueOf(pluginVersion));
+        settings.put("classifier", getClassifier());
+        settings.put("excludeHiddenFiles", Boolean.toString(excludeHiddenFiles));
+        settings.put("reproducibleTime", String.valueOf(fixedTime));
+        settings.put("mainFile", String.valueOf(mainFile));
+        settings.put("compression", compressionPolicy.getSettings());
+        settings.put("streaming", Boolean.toString(streamingFatApi));
+        settings.put("tarZst", Boolean.toString(tarZstFatApi));
+        // archives within budget are reused, so the check is only repeated when the budgets change
+        settings.put("budgets", String.format("maxSize=%d,maxEntries=%d,fail=%s", maxFatApiSize, maxFatApiEntries, failOnExceededBudget));
+        // defaults of the packaged exchange.json, see applyProjectDefaults
+        settings.put("project", getProjectGav());
+        return settings;
+    }
+
+    private String getProjectGav() {
+        return String.format("%s:%s:%s", project.getGroupId(), project.getArtifactId(), project.getVersion());
     }
 
     private boolean isHiddenFile(String entryName) {
@@ -152,20 +489,24 @@ public class ExchangeApiPackagerMojo extends AbstractMojo {
      * See APIKIT-1956
      *
      * @param file file to check weather it's exchange.json or not.
-     * @return the same input {@code file} if it wasn't the exchange.json file. Otherwise, it reads the full content and
-     * removes all the spaces by using the serializer. In case anything fails, it falls back to the original file.
+     * @param projectDescriptor true if the file is the exchange.json of the project being packaged (not the one of a dependency)
+     * @return the content of the input {@code file} if it wasn't the exchange.json file. Otherwise, its content
+     * without all the spaces, minified in memory by the serializer. In case anything fails, it falls back to the
+     * original content.
      */
-    private File tamperFileIfExchangeJson(File file) {
+    private byte[] tamperFileIfExchangeJson(File file, boolean projectDescriptor) throws IOException {
+        final byte[] content = Files.readAllBytes(file.toPath());
         if (file.getName().equals(EXCHANGE_JSON)) {
             try {
-                final ExchangeModelSerializer objectMapper = new ExchangeModelSerializer();
-                objectMapper.indent(false);
-                final ExchangeModel model = objectMapper.read(file);
-                final File temporal_exchange = File.createTempFile("temporal_exchange", ".json");
-                objectMapper.write(model, temporal_exchange);
-                return temporal_exchange;
+                final ExchangeModel model = minifyingSerializer.read(new ByteArrayInputStream(content));
+                if (projectDescriptor) {
+                    applyProjectDefaults(model);
+                }
+                final ByteArrayOutputStream minified = new ByteArrayOutputStream(content.length);
+                minifyingSerializer.write(model, minified);
+                return minified.toByteArray();
             } catch (IOException e) {
-                //fail silently, returning the original file
+                //fail silently, returning the original content
                 if (getLog().isDebugEnabled()) {
                     getLog().debug(String.format("There has been an issue reading the [%s] file, message: [%s]. Full stack below.",
                             EXCHANGE_JSON,
@@ -173,9 +514,30 @@ public class ExchangeApiPackagerMojo extends AbstractMojo {
                     e.printStackTrace();
                 }
             }
-            return file;
         }
-        return file;
+        return content;
+    }
+
+    /**
+     * The polyglot extension keeps the defaults of the exchange.json file (assetId, version, groupId) in memory instead
+     * of writing them back to the file, the packaged descriptor gets them from the project so it remains complete.
+     */
+    private void applyProjectDefaults(ExchangeModel model) {
+        if (StringUtils.isBlank(model.getGroupId())) {
+            model.setGroupId(project.getGroupId());
+        }
+        if (StringUtils.isBlank(model.getAssetId())) {
+            model.setAssetId(project.getArtifactId());
+        }
+        if (StringUtils.isBlank(model.getVersion())) {
+            model.setVersion(project.getVersion());
+        }
+    }
+
+    private static ExchangeModelSerializer createMinifyingSerializer() {
+        final ExchangeModelSerializer serializer = new StreamingExchangeModelSerializer();
+        serializer.indent(false);
+        return serializer;
     }
 
     protected String getFileName() {
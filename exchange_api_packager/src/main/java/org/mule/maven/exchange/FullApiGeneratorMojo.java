@@ -3,30 +3,29 @@
  */
 package org.mule.maven.exchange;
 
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.lang.StringUtils;
-import org.apache.maven.execution.MavenSession;
-import org.apache.maven.model.Dependency;
+import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.AbstractMojo;
-import org.apache.maven.plugin.BuildPluginManager;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.*;
 import org.apache.maven.project.MavenProject;
+import org.mule.maven.exchange.utils.ApiProjectConstants;
+import org.mule.maven.exchange.utils.Archives;
+import org.mule.maven.exchange.utils.ExtractionCache;
+import org.mule.maven.exchange.utils.PackagedDependencies;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
-import static org.mule.maven.exchange.utils.ApiProjectConstants.*;
-import static org.twdata.maven.mojoexecutor.MojoExecutor.*;
+import static org.mule.maven.exchange.utils.ApiProjectConstants.EXCHANGE_MODULES;
+import static org.mule.maven.exchange.utils.ApiProjectConstants.getFatApiDirectory;
 
 @Mojo(name = "generate-full-api", defaultPhase = LifecyclePhase.GENERATE_SOURCES, requiresDependencyCollection = ResolutionScope.COMPILE_PLUS_RUNTIME, requiresDependencyResolution = ResolutionScope.COMPILE_PLUS_RUNTIME)
 @Execute(goal = "generate-full-api")
@@ -36,114 +35,117 @@ public class FullApiGeneratorMojo extends AbstractMojo {
     @Component
     private MavenProject project;
 
-    @Component
-    private MavenSession mavenSession;
-
-    @Component
-    private BuildPluginManager pluginManager;
-
+    /**
+     * number of threads used to extract the dependencies and copy the sources, 0 (the default) means one per available
+     * processor
+     */
+    @Parameter(property = ApiProjectConstants.MAVEN_FULL_API_THREADS, defaultValue = "0")
+    private int threads;
+
+    /**
+     * true to populate the `exchange_modules` from the extraction cache shared by every build of the user, instead of
+     * unzipping every dependency again. The files are hard linked to the ones of the cache where possible, and the
+     * cached files are read-only, so tools writing into the `full_api` in place (rather than replacing its files) fail
+     */
+    @Parameter(property = ApiProjectConstants.MAVEN_FULL_API_CACHE, defaultValue = "false")
+    private boolean useCache;
+
+    @Parameter(property = ApiProjectConstants.MAVEN_FULL_API_CACHE_DIRECTORY, defaultValue = "${user.home}/.m2/" + ApiProjectConstants.EXCHANGE_MODULES_REPOSITORY)
+    private File cacheDirectory;
+
+    /**
+     * size in bytes of the extraction cache, the least recently used dependencies are evicted once it's exceeded
+     */
+    @Parameter(property = ApiProjectConstants.MAVEN_FULL_API_CACHE_MAX_SIZE, defaultValue = "1073741824")
+    private long cacheMaxSize;
 
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
 
-        //Download transitive dependencies
-
-        executeMojo(
-                plugin(
-                        groupId("org.apache.maven.plugins"),
-                        artifactId("maven-dependency-plugin"),
-                        version("2.0")
-                ),
-                goal("copy-dependencies"),
-                configuration(
-                        element(name("outputDirectory"), "${project.build.directory}/" + MAVEN_SKIP_REST_CONNECT),
-                        element(name("useRepositoryLayout"), "true")
-                ),
-                executionEnvironment(
-                        project,
-                        mavenSession,
-                        pluginManager
-                )
-        );
+        // the dependencies are already resolved (see requiresDependencyResolution), leaving out the validation only
+        // ones, so they are extracted straight from the local repository
 
         final File buildDirectory = new File(project.getBuild().getDirectory());
         final File fullApiDirectory = getFatApiDirectory(buildDirectory);
         final File sourceDirectory = new File(project.getBuild().getSourceDirectory());
-        final String targetRootPath = fullApiDirectory.getPath() + File.separator + EXCHANGE_MODULES;
-        final List<Dependency> projectDependencies = getDependenciesWithPotencialBadFormedPath();
 
+        final int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        final ForkJoinPool pool = new ForkJoinPool(poolSize);
         try {
-            unzipDependenciesAndCopyTo(new File(buildDirectory, MAVEN_SKIP_REST_CONNECT), new File(fullApiDirectory, EXCHANGE_MODULES), targetRootPath, projectDependencies);
-            FileUtils.copyDirectory(sourceDirectory, fullApiDirectory, new ApiSourceFileFilter(sourceDirectory, buildDirectory), true);
-        } catch (IOException e) {
-            throw new MojoExecutionException("Exception while trying to copy sources for `exchange-generate-full-api`", e);
+            unzipDependencies(fullApiDirectory, pool);
+            syncSources(sourceDirectory, buildDirectory, fullApiDirectory, pool);
+        } finally {
+            pool.shutdown();
         }
 
     }
 
-    private void unzipDependenciesAndCopyTo(File sourceFile, File targetFile, String targetRootPath, List<Dependency> projectDependencies) throws MojoExecutionException {
+    /**
+     * Brings the copy of the sources within the full API up to date, copying only the files that changed since the
+     * previous build and deleting the ones that were removed. The `exchange_modules` folder is left as it is.
+     */
+    private void syncSources(File sourceDirectory, File buildDirectory, File fullApiDirectory, ForkJoinPool pool) throws MojoExecutionException {
+        final File exchangeModulesDirectory = new File(fullApiDirectory, EXCHANGE_MODULES);
+        final long start = System.nanoTime();
+        final Archives.SyncResult result;
         try {
+            result = pool.submit(() -> Archives.syncDirectory(sourceDirectory, fullApiDirectory,
+                    new ApiSourceFileFilter(sourceDirectory, buildDirectory), file -> !file.equals(exchangeModulesDirectory))).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while copying sources for `exchange-generate-full-api`", e);
+        } catch (ExecutionException e) {
+            throw new MojoExecutionException("Exception while trying to copy sources for `exchange-generate-full-api`", e.getCause());
+        }
+        getLog().info(String.format("Synced sources in %d ms: %d copied, %d up to date, %d deleted", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                result.getCopied(), result.getSkipped(), result.getDeleted()));
+    }
 
-            if (sourceFile.isDirectory()) {
-                File[] listFiles = sourceFile.listFiles();
-                if (listFiles != null) {
-                    for (File childFile : listFiles) {
-                        unzipDependenciesAndCopyTo(childFile, new File(targetFile, childFile.getName()), targetRootPath, projectDependencies);
-                    }
-                }
-            } else if (sourceFile.isFile() && sourceFile.getName().endsWith(".zip")) {
-
-                Optional<String> fixedPath = getFixedPath(projectDependencies, targetFile, targetRootPath);
-                File targetDirectory = targetFile.getParentFile();
-
-               if(fixedPath.isPresent()){
-                   targetDirectory = new File(fixedPath.get());
-               }
-
-                targetDirectory.mkdirs();
-                byte[] buffer = new byte[1024];
-                try (ZipInputStream zis = new ZipInputStream(new FileInputStream(sourceFile))) {
-
-                    ZipEntry zipEntry = zis.getNextEntry();
-                    while (zipEntry != null) {
-                        File newFile = new File(targetDirectory, zipEntry.getName());
-                        if(zipEntry.isDirectory()){
-                            newFile.mkdir();
-                        }else{
-                            try (FileOutputStream fos = new FileOutputStream(newFile)) {
-                                int len;
-                                while ((len = zis.read(buffer)) > 0) {
-                                    fos.write(buffer, 0, len);
-                                }
-                            }
+    /**
+     * Extracts every packaged dependency into its `exchange_modules/groupId/assetId/version` folder, concurrently on a
+     * work stealing pool that also splits the entries of each archive across its workers.
+     */
+    private void unzipDependencies(File fullApiDirectory, ForkJoinPool pool) throws MojoExecutionException {
+        // artifacts sharing a folder (e.g. several classifiers of an asset) are extracted one after the other, in
+        // resolution order, so a file they have in common ends up with the content of the last one
+        final Map<String, List<Artifact>> folders = PackagedDependencies.byFolder(project);
+        final ExtractionCache cache = useCache ? new ExtractionCache(cacheDirectory, cacheMaxSize) : null;
+        final long start = System.nanoTime();
+        try {
+            // parallel streams run on the pool of the task that starts them
+            pool.submit(() -> new ArrayList<>(folders.entrySet()).parallelStream().forEach(folder -> {
+                for (Artifact artifact : folder.getValue()) {
+                    final File targetDirectory = new File(fullApiDirectory, folder.getKey());
+                    try {
+                        if (cache != null) {
+                            cache.extract(artifact, targetDirectory);
+                        } else {
+                            Archives.extractConcurrently(artifact.getFile(), targetDirectory);
                         }
-                        zipEntry = zis.getNextEntry();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Unable to unzip " + artifact.getFile().getAbsolutePath(), e);
                     }
-                    zis.closeEntry();
                 }
-            }
-        } catch (IOException e) {
-            throw new MojoExecutionException("Unable to unzip " + sourceFile.getAbsolutePath(), e);
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while unzipping the dependencies", e);
+        } catch (ExecutionException e) {
+            throw new MojoExecutionException(e.getCause().getMessage(), e.getCause());
         }
-    }
-
-    private Optional<String> getFixedPath(List<Dependency> projectDependencies, File targetFile, String targetRootPath){
-        for(Dependency p : projectDependencies) {
-            String groupIdPath = StringUtils.replace(p.getGroupId(), ".", File.separator);
-            String partGavPath = File.separator  + p.getArtifactId() + File.separator + p.getVersion();
-            String gavPath = groupIdPath + partGavPath;
-
-            if(StringUtils.endsWith(targetFile.getParentFile().getPath(), gavPath)){
-                return Optional.of(targetRootPath + File.separator + p.getGroupId() + partGavPath);
+        getLog().info(String.format("Unzipped %d dependencies in %d ms (%d threads)", folders.values().stream().mapToInt(List::size).sum(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), pool.getParallelism()));
+        if (cache != null) {
+            getLog().info("Extraction cache: " + cache.getSummary());
+            try {
+                final int evicted = cache.evict();
+                if (evicted > 0) {
+                    getLog().info(String.format("Evicted %d dependencies from the extraction cache %s", evicted, cacheDirectory.getAbsolutePath()));
+                }
+            } catch (IOException e) {
+                // the full API is complete, a cache that can't be trimmed shouldn't fail the build
+                getLog().warn("Unable to evict dependencies from the extraction cache " + cacheDirectory.getAbsolutePath(), e);
             }
         }
-        return Optional.empty();
-
-    }
-
-    private List<Dependency> getDependenciesWithPotencialBadFormedPath(){
-        Stream<Dependency> collect = project.getDependencies().stream().filter(d -> StringUtils.containsAny(((Dependency) d).getGroupId(), "."));
-        List<Dependency> depWithDotsInGroupId = collect.collect(Collectors.toList());
-        return depWithDotsInGroupId;
     }
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange;
+
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.project.MavenProject;
+import org.mule.maven.exchange.utils.AtomicFiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * When the polyglot extension serves the Maven model from memory (`-Dexchange.maven.inMemoryModel=true`) the temporal
+ * ".exchange.xml" file is not written while reading the project. This goal writes it right before the installation, so
+ * that install and deploy find the .pom of the project, and only touches the file if its content changed.
+ */
+@Mojo(name = "write-pom", defaultPhase = LifecyclePhase.VERIFY)
+public class WritePomMojo extends AbstractMojo {
+
+    @Component
+    private MavenProject project;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        final File pomFile = project.getFile();
+        try {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            new MavenXpp3Writer().write(output, project.getOriginalModel());
+            if (AtomicFiles.writeIfChanged(pomFile, output.toByteArray())) {
+                getLog().debug(String.format("POM file [%s] written", pomFile.getAbsolutePath()));
+            } else {
+                getLog().debug(String.format("POM file [%s] is up to date", pomFile.getAbsolutePath()));
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException(String.format("Exception while writing the POM file [%s]", pomFile.getAbsolutePath()), e);
+        }
+    }
+}
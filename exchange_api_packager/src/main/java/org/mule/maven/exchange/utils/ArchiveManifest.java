@@ -0,0 +1,252 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange.utils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Record of every input used to generate the API archives (paths, sizes, modification times and content hashes of the
+ * sources, keyed by {@link ArchiveSource#getId()}, plus the configuration and version of the packager) and of the archives generated from them. When the manifest of the
+ * previous build matches the current inputs, and the archives are still the ones it generated, they can be reused.
+ */
+public class ArchiveManifest {
+
+    private static final String HEADER = "# exchange api packager manifest v1";
+    private static final String SETTING = "setting";
+    private static final String ARCHIVE = "archive";
+    private static final String ENTRY = "entry";
+    private static final String SEPARATOR = "\t";
+
+    private final Map<String, String> settings;
+    private final Map<String, FileState> archives;
+    private final Map<String, FileState> entries;
+
+    private ArchiveManifest(Map<String, String> settings, Map<String, FileState> archives, Map<String, FileState> entries) {
+        this.settings = settings;
+        this.archives = archives;
+        this.entries = entries;
+    }
+
+    /**
+     * Creates the manifest of the current inputs, hashing their content in parallel. Files whose path, size and
+     * modification time match the {@code previous} manifest reuse its hash instead of reading them again.
+     *
+     * @param sources  files to be archived
+     * @param settings configuration that changes the content of the archives
+     * @param previous manifest of the previous build, or null
+     * @param threads  maximum number of files hashed at the same time
+     */
+    public static ArchiveManifest create(List<ArchiveSource> sources, Map<String, String> settings, ArchiveManifest previous, int threads) throws IOException {
+        final ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        try {
+            final List<FileState> states = pool.submit(() -> sources.parallelStream()
+                    .map(source -> toFileState(source, previous))
+                    .collect(Collectors.toList())).get();
+            final Map<String, FileState> entries = new LinkedHashMap<>();
+            for (int i = 0; i < sources.size(); i++) {
+                entries.put(sources.get(i).getId(), states.get(i));
+            }
+            return new ArchiveManifest(new TreeMap<>(settings), new LinkedHashMap<>(), entries);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while hashing the archive inputs");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IllegalStateException("Unexpected error while hashing the archive inputs", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @return the manifest stored in {@code file}, or null if there's none or it can't be read
+     */
+    public static ArchiveManifest read(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine())) {
+                return null;
+            }
+            final Map<String, String> settings = new TreeMap<>();
+            final Map<String, FileState> archives = new LinkedHashMap<>();
+            final Map<String, FileState> entries = new LinkedHashMap<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String[] fields = line.split(SEPARATOR, -1);
+                if (fields[0].equals(SETTING) && fields.length == 3) {
+                    settings.put(fields[1], fields[2]);
+                } else if (fields[0].equals(ARCHIVE) && fields.length == 6) {
+                    archives.put(fields[1], FileState.parse(fields));
+                } else if (fields[0].equals(ENTRY) && fields.length == 6) {
+                    entries.put(fields[1], FileState.parse(fields));
+                } else {
+                    return null;
+                }
+            }
+            return new ArchiveManifest(settings, archives, entries);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Records the state of the generated {@code archives} and stores the manifest in {@code file}.
+     */
+    public void write(File file, File... archives) throws IOException {
+        this.archives.clear();
+        for (File archive : archives) {
+            this.archives.put(archive.getName(), new FileState(archive.getAbsolutePath(), archive.length(), archive.lastModified(), ""));
+        }
+        final File temporal = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporal.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (Map.Entry<String, String> setting : settings.entrySet()) {
+                writer.write(String.join(SEPARATOR, SETTING, setting.getKey(), setting.getValue()));
+                writer.newLine();
+            }
+            for (Map.Entry<String, FileState> archive : this.archives.entrySet()) {
+                writer.write(archive.getValue().format(ARCHIVE, archive.getKey()));
+                writer.newLine();
+            }
+            for (Map.Entry<String, FileState> entry : entries.entrySet()) {
+                writer.write(entry.getValue().format(ENTRY, entry.getKey()));
+                writer.newLine();
+            }
+        }
+        Files.move(temporal.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @param previous manifest of the previous build, or null
+     * @param archives archives that would be reused
+     * @return why the archives must be generated again, or null if they can be reused
+     */
+    public String getChangeReason(ArchiveManifest previous, File... archives) {
+        if (previous == null) {
+            return "there's no manifest of a previous build";
+        }
+        if (!settings.equals(previous.settings)) {
+            final Set<String> keys = new TreeSet<>(settings.keySet());
+            keys.addAll(previous.settings.keySet());
+            final List<String> changed = keys.stream()
+                    .filter(key -> !Objects.equals(settings.get(key), previous.settings.get(key)))
+                    .collect(Collectors.toList());
+            return String.format("configuration changed %s", changed);
+        }
+        for (File archive : archives) {
+            final FileState state = previous.archives.get(archive.getName());
+            if (state == null || !archive.isFile() || state.size != archive.length() || state.lastModified != archive.lastModified()) {
+                return String.format("archive [%s] is missing or was modified", archive.getName());
+            }
+        }
+        for (Map.Entry<String, FileState> entry : entries.entrySet()) {
+            final FileState state = previous.entries.get(entry.getKey());
+            if (state == null) {
+                return String.format("[%s] was added", entry.getKey());
+            }
+            if (!entry.getValue().path.equals(state.path) || !entry.getValue().hash.equals(state.hash)) {
+                return String.format("[%s] was modified", entry.getKey());
+            }
+        }
+        for (String name : previous.entries.keySet()) {
+            if (!entries.containsKey(name)) {
+                return String.format("[%s] was removed", name);
+            }
+        }
+        if (!new ArrayList<>(entries.keySet()).equals(new ArrayList<>(previous.entries.keySet()))) {
+            return "the order of the entries changed";
+        }
+        return null;
+    }
+
+    private static FileState toFileState(ArchiveSource source, ArchiveManifest previous) {
+        final File file = source.getFile();
+        final String path = file.getAbsolutePath();
+        final long size = file.length();
+        final long lastModified = file.lastModified();
+        final FileState known = previous != null ? previous.entries.get(source.getId()) : null;
+        if (known != null && known.path.equals(path) && known.size == size && known.lastModified == lastModified) {
+            return known;
+        }
+        try {
+            return new FileState(path, size, lastModified, sha256(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the SHA-256 hash of the content of {@code file}, in hexadecimal
+     */
+    static String sha256(File file) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            final byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        final StringBuilder result = new StringBuilder();
+        for (byte b : digest.digest()) {
+            result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return result.toString();
+    }
+
+    private static class FileState {
+
+        private final String path;
+        private final long size;
+        private final long lastModified;
+        private final String hash;
+
+        private FileState(String path, long size, long lastModified, String hash) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+
+        private static FileState parse(String[] fields) {
+            return new FileState(fields[2], Long.parseLong(fields[3]), Long.parseLong(fields[4]), fields[5]);
+        }
+
+        private String format(String kind, String name) {
+            return String.join(SEPARATOR, kind, name, path, Long.toString(size), Long.toString(lastModified), hash);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange.utils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static org.mule.maven.exchange.utils.ApiProjectConstants.EXCHANGE_MODULES;
+
+/**
+ * Size and composition of the fat API archive: bytes and entries per top level directory and per dependency (the
+ * `exchange_modules/groupId/assetId/version` folders), built from the entries as they are written, and stored as JSON
+ * so that growth of the archive can be tracked without extracting it.
+ */
+public class ArchiveReport implements Consumer<CompressedEntry> {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String ROOT_DIRECTORY = "/";
+
+    private final Stats total = new Stats();
+    private final Map<String, Stats> directories = new TreeMap<>();
+    private final Map<String, Stats> dependencies = new TreeMap<>();
+
+    /**
+     * Records an entry written into the fat archive.
+     */
+    @Override
+    public void accept(CompressedEntry entry) {
+        final String[] elements = entry.getName().split("/");
+        total.add(entry);
+        directories.computeIfAbsent(elements.length > 1 ? elements[0] : ROOT_DIRECTORY, directory -> new Stats()).add(entry);
+        if (elements.length > 4 && elements[0].equals(EXCHANGE_MODULES)) {
+            dependencies.computeIfAbsent(String.join(":", elements[1], elements[2], elements[3]), gav -> new Stats()).add(entry);
+        }
+    }
+
+    public long getEntries() {
+        return total.entries;
+    }
+
+    /**
+     * Writes the report into {@code file}.
+     *
+     * @param project        GAV of the project
+     * @param archives       size in bytes of every archive generated, by name
+     * @param timeMillis     time spent generating the archives
+     * @param exceededBudgets description of every budget exceeded by the archives
+     */
+    public void write(File file, String project, Map<String, Long> archives, long timeMillis, List<String> exceededBudgets) throws IOException {
+        try (JsonGenerator gen = JSON_FACTORY.createGenerator(file, JsonEncoding.UTF8)) {
+            gen.useDefaultPrettyPrinter();
+            gen.writeStartObject();
+            gen.writeStringField("project", project);
+            gen.writeNumberField("timeMillis", timeMillis);
+            gen.writeObjectFieldStart("archives");
+            for (Map.Entry<String, Long> archive : archives.entrySet()) {
+                gen.writeNumberField(archive.getKey(), archive.getValue());
+            }
+            gen.writeEndObject();
+            gen.writeFieldName("total");
+            total.write(gen);
+            gen.writeArrayFieldStart("directories");
+            for (Map.Entry<String, Stats> directory : directories.entrySet()) {
+                directory.getValue().write(gen, "path", directory.getKey());
+            }
+            gen.writeEndArray();
+            gen.writeArrayFieldStart("dependencies");
+            for (Map.Entry<String, Stats> dependency : dependencies.entrySet()) {
+                final String[] gav = dependency.getKey().split(":");
+                dependency.getValue().write(gen, "groupId", gav[0], "assetId", gav[1], "version", gav[2]);
+            }
+            gen.writeEndArray();
+            gen.writeArrayFieldStart("exceededBudgets");
+            for (String exceededBudget : exceededBudgets) {
+                gen.writeString(exceededBudget);
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+
+    private static class Stats {
+
+        private long entries;
+        private long uncompressedBytes;
+        private long compressedBytes;
+
+        private void add(CompressedEntry entry) {
+            entries++;
+            uncompressedBytes += entry.getSize();
+            compressedBytes += entry.getCompressedSize();
+        }
+
+        /**
+         * @param fields name and value of the fields that identify these stats
+         */
+        private void write(JsonGenerator gen, String... fields) throws IOException {
+            gen.writeStartObject();
+            for (int i = 0; i < fields.length; i += 2) {
+                gen.writeStringField(fields[i], fields[i + 1]);
+            }
+            gen.writeNumberField("entries", entries);
+            gen.writeNumberField("uncompressedBytes", uncompressedBytes);
+            gen.writeNumberField("compressedBytes", compressedBytes);
+            final BigDecimal ratio = uncompressedBytes == 0 ? BigDecimal.ONE
+                    : BigDecimal.valueOf(compressedBytes).divide(BigDecimal.valueOf(uncompressedBytes), 3, RoundingMode.HALF_UP);
+            gen.writeNumberField("compressionRatio", ratio);
+            gen.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange.utils;
+
+import java.io.File;
+
+/**
+ * File to be added to the API archives.
+ */
+public class ArchiveSource {
+
+    private final String name;
+    private final String id;
+    private final File file;
+    private final boolean fatOnly;
+    private final boolean zipped;
+
+    /**
+     * @param name    name of the entry within the archives
+     * @param file    file with the content of the entry
+     * @param fatOnly true if the file only goes into the fat archive (e.g. dependencies), false if it goes into both
+     */
+    public ArchiveSource(String name, File file, boolean fatOnly) {
+        this(name, name, file, fatOnly, false);
+    }
+
+    /**
+     * @param name    name of the entry within the archives, or of the folder of the entries if {@code zipped}
+     * @param id      unique among the sources of the archives, e.g. the name of the entry or the coordinates of the
+     *                dependency, as several zips may share the same folder
+     * @param file    file with the content of the entry, or zip with the entries if {@code zipped}
+     * @param fatOnly true if the file only goes into the fat archive (e.g. dependencies), false if it goes into both
+     * @param zipped  true if the entries of the {@code file} are copied as they are, instead of the file itself
+     */
+    public ArchiveSource(String name, String id, File file, boolean fatOnly, boolean zipped) {
+        this.name = name;
+        this.id = id;
+        this.file = file;
+        this.fatOnly = fatOnly;
+        this.zipped = zipped;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public boolean isFatOnly() {
+        return fatOnly;
+    }
+
+    public boolean isZipped() {
+        return zipped;
+    }
+}
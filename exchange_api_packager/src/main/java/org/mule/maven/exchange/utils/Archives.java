@@ -0,0 +1,359 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange.utils;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * File system and zip operations shared by the mojos of the packager: walking directory trees, copying files through
+ * their channels and extracting zips with random access, so none of them hand-rolls its own streams and buffers.
+ */
+public final class Archives {
+
+    /**
+     * Size of the buffers used to copy streams, big enough so that inflating an entry isn't dominated by the calls to
+     * read and write
+     */
+    private static final int BUFFER_SIZE = 128 * 1024;
+
+    /**
+     * One buffer per thread, so that copies (that may happen concurrently) don't allocate a new one each time
+     */
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    private Archives() {
+    }
+
+    /**
+     * @param directory root of the tree, it's not checked against the {@code filter}
+     * @param filter    files and directories to visit, a rejected directory isn't traversed
+     * @return the path, relative to {@code directory}, of every file accepted by the {@code filter} in traversal order
+     * (which depends on the file system), or an empty list if the {@code directory} doesn't exist
+     */
+    public static List<Path> listFiles(File directory, FileFilter filter) throws IOException {
+        final List<Path> files = new ArrayList<>();
+        final Path root = directory.toPath();
+        if (!Files.isDirectory(root)) {
+            return files;
+        }
+        Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return dir.equals(root) || filter.accept(dir.toFile()) ? FileVisitResult.CONTINUE : FileVisitResult.SKIP_SUBTREE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && filter.accept(file.toFile())) {
+                    files.add(root.relativize(file));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return files;
+    }
+
+    /**
+     * @return the name of the zip entry (or of any other slash separated path) of the {@code relativePath}
+     */
+    public static String toEntryName(Path relativePath) {
+        final StringBuilder name = new StringBuilder();
+        for (Path element : relativePath) {
+            if (name.length() > 0) {
+                name.append('/');
+            }
+            name.append(element);
+        }
+        return name.toString();
+    }
+
+    /**
+     * Makes the files of {@code target} accepted by the {@code targetFilter} mirror the files of {@code source}
+     * accepted by the {@code sourceFilter}: files whose size, modification time and content are the same are left as
+     * they are, the rest are copied (see {@link #copyFile(Path, Path)}), and the ones no longer in the {@code source}
+     * are deleted, along with the directories they leave empty. Both trees are walked at the same time and files are
+     * compared and copied concurrently, on the {@link java.util.concurrent.ForkJoinPool} of the caller if it runs on
+     * one.
+     *
+     * @param targetFilter files and directories of {@code target} managed by the sync, a rejected directory is neither
+     *                     traversed nor cleaned up
+     */
+    public static SyncResult syncDirectory(File source, File target, FileFilter sourceFilter, FileFilter targetFilter) throws IOException {
+        final ForkJoinTask<List<Path>> targetListing = ForkJoinTask.adapt(() -> listFiles(target, targetFilter)).fork();
+        final List<Path> sourceFiles = listFiles(source, sourceFilter);
+        final Set<Path> staleFiles;
+        try {
+            staleFiles = new HashSet<>(targetListing.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while listing " + target.getAbsolutePath());
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+        staleFiles.removeAll(sourceFiles);
+
+        final SyncResult result = new SyncResult();
+        try {
+            sourceFiles.parallelStream().forEach(file -> {
+                try {
+                    if (syncFile(source.toPath().resolve(file), target.toPath().resolve(file))) {
+                        result.copied.incrementAndGet();
+                    } else {
+                        result.skipped.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        final Path targetRoot = target.toPath();
+        for (Path file : staleFiles) {
+            // it may be gone already, e.g. removed along with its directory by another tool
+            if (deleteFile(targetRoot.resolve(file))) {
+                result.deleted.incrementAndGet();
+            }
+            deleteEmptyParents(targetRoot, targetRoot.resolve(file));
+        }
+        return result;
+    }
+
+    /**
+     * @return true if {@code target} had to be copied, false if it was already the same as {@code source}
+     */
+    private static boolean syncFile(Path source, Path target) throws IOException {
+        if (Files.isRegularFile(target, LinkOption.NOFOLLOW_LINKS) && Files.size(source) == Files.size(target)) {
+            final FileTime lastModified = Files.getLastModifiedTime(source);
+            if (lastModified.equals(Files.getLastModifiedTime(target))) {
+                return false;
+            }
+            // touched without being modified (e.g. a checkout), only the time is brought up to date
+            if (ArchiveManifest.sha256(source.toFile()).equals(ArchiveManifest.sha256(target.toFile()))) {
+                Files.setLastModifiedTime(target, lastModified);
+                return false;
+            }
+        }
+        copyFile(source, target);
+        return true;
+    }
+
+    private static void deleteEmptyParents(Path root, Path file) throws IOException {
+        for (Path dir = file.getParent(); dir != null && !dir.equals(root) && dir.startsWith(root); dir = dir.getParent()) {
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+                if (children.iterator().hasNext()) {
+                    return;
+                }
+            } catch (NoSuchFileException e) {
+                continue;
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    /**
+     * Outcome of {@link #syncDirectory(File, File, FileFilter, FileFilter)}
+     */
+    public static final class SyncResult {
+
+        private final AtomicInteger copied = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger deleted = new AtomicInteger();
+
+        public int getCopied() {
+            return copied.get();
+        }
+
+        public int getSkipped() {
+            return skipped.get();
+        }
+
+        public int getDeleted() {
+            return deleted.get();
+        }
+    }
+
+    /**
+     * Copies {@code source} into {@code target} (replacing it, see {@link #copy(InputStream, Path)}), keeping its
+     * modification time.
+     */
+    public static void copyFile(Path source, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        deleteFile(target);
+        try (FileChannel input = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel output = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW)) {
+            final long size = input.size();
+            long position = 0;
+            while (position < size) {
+                position += input.transferTo(position, size - position, output);
+            }
+        }
+        Files.setLastModifiedTime(target, Files.getLastModifiedTime(source));
+    }
+
+    /**
+     * Extracts every entry of the {@code zip} into {@code targetDirectory}, replacing existing files. The archive is
+     * read through its central directory, so entries are located by random access instead of scanning the whole file.
+     *
+     * @return number of files extracted
+     * @throws IOException if the archive can't be read, or if an entry would be extracted outside of the
+     *                     {@code targetDirectory}
+     */
+    public static int extract(File zip, File targetDirectory) throws IOException {
+        final Path target = targetDirectory.toPath().toAbsolutePath().normalize();
+        Files.createDirectories(target);
+        int extracted = 0;
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            final Enumeration<ZipArchiveEntry> entries = zipFile.getEntriesInPhysicalOrder();
+            while (entries.hasMoreElements()) {
+                extracted += extractEntry(zipFile, entries.nextElement(), target);
+            }
+        }
+        return extracted;
+    }
+
+    /**
+     * Same as {@link #extract(File, File)}, extracting the entries concurrently. When it's called from a task of a
+     * {@link java.util.concurrent.ForkJoinPool} the entries are split across the workers of that pool, so a big
+     * archive doesn't keep a single worker busy while the rest are idle.
+     */
+    public static int extractConcurrently(File zip, File targetDirectory) throws IOException {
+        final Path target = targetDirectory.toPath().toAbsolutePath().normalize();
+        Files.createDirectories(target);
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            // entries are read with positioned reads, so they can be inflated concurrently. When a name is repeated
+            // only the last entry is extracted, as it would overwrite the previous ones when extracting sequentially
+            final Map<String, ZipArchiveEntry> entries = new LinkedHashMap<>();
+            for (ZipArchiveEntry entry : Collections.list(zipFile.getEntriesInPhysicalOrder())) {
+                entries.put(entry.getName(), entry);
+            }
+            return new ArrayList<>(entries.values()).parallelStream().mapToInt(entry -> {
+                try {
+                    return extractEntry(zipFile, entry, target);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).sum();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @return 1 if the entry was a file, 0 if it was a directory
+     */
+    private static int extractEntry(ZipFile zipFile, ZipArchiveEntry entry, Path target) throws IOException {
+        final Path entryPath = resolveEntry(target, entry.getName());
+        if (entry.isDirectory()) {
+            // creating directories is idempotent, and safe when another thread is creating them at the same time
+            Files.createDirectories(entryPath);
+            return 0;
+        }
+        try (InputStream inputStream = zipFile.getInputStream(entry)) {
+            copy(inputStream, entryPath);
+        }
+        return 1;
+    }
+
+    /**
+     * Writes the content of {@code inputStream} into {@code target} (replacing it), creating its parent directories.
+     * An existing {@code target} is deleted rather than overwritten, as it may be a hard link to a cached file (see
+     * {@link ExtractionCache}).
+     */
+    public static void copy(InputStream inputStream, Path target) throws IOException {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        deleteFile(target);
+        try (OutputStream outputStream = Files.newOutputStream(target)) {
+            final byte[] buffer = BUFFERS.get();
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+        }
+    }
+
+    /**
+     * Deletes {@code path} and, if it's a directory, everything within it. Nothing happens if it doesn't exist.
+     */
+    public static void delete(Path path) throws IOException {
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                deleteFile(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (exc != null) {
+                    throw exc;
+                }
+                Files.deleteIfExists(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Deletes {@code file}, even if it's read-only (as the files of the {@link ExtractionCache} are) in a file system
+     * that doesn't allow deleting those.
+     *
+     * @return true if the file was deleted, false if it didn't exist
+     */
+    public static boolean deleteFile(Path file) throws IOException {
+        try {
+            return Files.deleteIfExists(file);
+        } catch (AccessDeniedException e) {
+            if (!file.toFile().setWritable(true)) {
+                throw e;
+            }
+            return Files.deleteIfExists(file);
+        }
+    }
+
+    private static Path resolveEntry(Path target, String name) throws IOException {
+        final Path entryPath = target.resolve(name).normalize();
+        if (!entryPath.startsWith(target)) {
+            throw new IOException(String.format("Zip entry [%s] is outside of the target directory [%s]", name, target));
+        }
+        return entryPath;
+    }
+}
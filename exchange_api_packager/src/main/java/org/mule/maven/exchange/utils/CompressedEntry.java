@@ -0,0 +1,185 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange.utils;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.TimeZone;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * Zip entry whose content has already been compressed, so that it can be copied raw (without deflating it again) into
+ * as many archives as needed. The compressed content is either held in memory or, for entries of other archives,
+ * streamed from them whenever it's written.
+ */
+public class CompressedEntry {
+
+    /**
+     * Regular file readable by everyone and writable by the owner (rw-r--r--)
+     */
+    private static final int REPRODUCIBLE_UNIX_MODE = 0100644;
+
+    private final String name;
+    private final int method;
+    private final long size;
+    private final long crc;
+    private final byte[] compressed;
+    private final byte[] content;
+    private final ZipFile sourceZip;
+    private final ZipArchiveEntry sourceEntry;
+
+    private CompressedEntry(String name, int method, long size, long crc, byte[] compressed, byte[] content) {
+        this(name, method, size, crc, compressed, content, null, null);
+    }
+
+    private CompressedEntry(String name, int method, long size, long crc, byte[] compressed, byte[] content, ZipFile sourceZip, ZipArchiveEntry sourceEntry) {
+        this.name = name;
+        this.method = method;
+        this.size = size;
+        this.crc = crc;
+        this.compressed = compressed;
+        this.content = content;
+        this.sourceZip = sourceZip;
+        this.sourceEntry = sourceEntry;
+    }
+
+    /**
+     * @param name    name of the entry within the archive
+     * @param content uncompressed content of the entry
+     * @return the entry with its content deflated at the default level, as {@link java.util.zip.ZipOutputStream} does.
+     * The level is fixed (rather than left to the defaults of the archiver) so that the output is stable.
+     */
+    public static CompressedEntry deflate(String name, byte[] content) throws IOException {
+        return deflate(name, content, Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY);
+    }
+
+    /**
+     * @param name     name of the entry within the archive
+     * @param content  uncompressed content of the entry
+     * @param level    {@link Deflater} level
+     * @param strategy {@link Deflater} strategy
+     * @return the entry with its content deflated
+     */
+    public static CompressedEntry deflate(String name, byte[] content, int level, int strategy) throws IOException {
+        final Deflater deflater = new Deflater(level, true);
+        deflater.setStrategy(strategy);
+        try {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, content.length / 2));
+            try (DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(output, deflater)) {
+                deflaterOutputStream.write(content);
+            }
+            return new CompressedEntry(name, ZipEntry.DEFLATED, content.length, crc(content), output.toByteArray(), null);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * @return the entry with its content as is, without compression
+     */
+    public static CompressedEntry store(String name, byte[] content) {
+        return new CompressedEntry(name, ZipEntry.STORED, content.length, crc(content), content, null);
+    }
+
+    /**
+     * @param name       name of the entry within the new archive
+     * @param entry      entry of another archive
+     * @param rawContent content of the {@code entry} as it's compressed within its archive
+     * @return the entry with the same content and compression, so that it can be copied without inflating it
+     */
+    public static CompressedEntry copyOf(String name, ZipArchiveEntry entry, InputStream rawContent) throws IOException {
+        return new CompressedEntry(name, entry.getMethod(), entry.getSize(), entry.getCrc(), IOUtils.toByteArray(rawContent), null);
+    }
+
+    /**
+     * @param name  name of the entry within the new archive
+     * @param zip   archive the {@code entry} belongs to, it must be kept open until the entry is written
+     * @param entry entry of the {@code zip}
+     * @return the entry with the same content and compression, read from the {@code zip} every time it's written
+     * instead of being held in memory
+     */
+    public static CompressedEntry streamedFrom(String name, ZipFile zip, ZipArchiveEntry entry) {
+        return new CompressedEntry(name, entry.getMethod(), entry.getSize(), entry.getCrc(), null, null, zip, entry);
+    }
+
+    /**
+     * @return the same entry, also holding its uncompressed {@code content} for the archives that need it
+     */
+    public CompressedEntry withContent(byte[] content) {
+        return new CompressedEntry(name, method, size, crc, compressed, content);
+    }
+
+    private static long crc(byte[] content) {
+        final CRC32 crc = new CRC32();
+        crc.update(content);
+        return crc.getValue();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getCompressedSize() {
+        return compressed != null ? compressed.length : sourceEntry.getCompressedSize();
+    }
+
+    /**
+     * @return the uncompressed content, which must have been kept (see {@link #withContent(byte[])}) unless the entry
+     * is streamed from another archive
+     */
+    public InputStream openContent() throws IOException {
+        if (sourceZip != null) {
+            return sourceZip.getInputStream(sourceEntry);
+        }
+        if (content == null) {
+            throw new IllegalStateException(String.format("The content of [%s] wasn't kept", name));
+        }
+        return new ByteArrayInputStream(content);
+    }
+
+    /**
+     * Writes the already compressed content into {@code zip}, without deflating it again.
+     *
+     * @param fixedTime null to timestamp the entry with the current time, otherwise the entry gets this time (in
+     *                  milliseconds since the epoch) and normalized permissions so that the archive is reproducible
+     */
+    public void writeTo(ZipArchiveOutputStream zip, Long fixedTime) throws IOException {
+        final ZipArchiveEntry entry = new ZipArchiveEntry(name);
+        entry.setMethod(method);
+        entry.setSize(size);
+        entry.setCompressedSize(getCompressedSize());
+        entry.setCrc(crc);
+        if (fixedTime == null) {
+            entry.setTime(System.currentTimeMillis());
+        } else {
+            entry.setTime(toLocalDosTime(fixedTime));
+            entry.setUnixMode(REPRODUCIBLE_UNIX_MODE);
+        }
+        try (InputStream rawContent = sourceZip != null ? sourceZip.getRawInputStream(sourceEntry) : new ByteArrayInputStream(compressed)) {
+            zip.addRawArchiveEntry(entry, rawContent);
+        }
+    }
+
+    /**
+     * Zip entries store the time without time zone, shift it so that the stored value is the UTC one no matter the
+     * time zone of the machine building the archive.
+     */
+    private static long toLocalDosTime(long utcTime) {
+        return utcTime - TimeZone.getDefault().getOffset(utcTime);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange.utils;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+/**
+ * Decides how each zip entry is compressed: files with an already compressed format (images, PDFs, nested archives,
+ * etc.) and files whose compression ratio is poor are STORED, the rest are deflated with the configured level and
+ * strategy. It also keeps the statistics of the decisions taken, see {@link #getSummary()}.
+ */
+public class CompressionPolicy {
+
+    public static final String DEFAULT_STORED_EXTENSIONS = "png,jpg,jpeg,gif,webp,ico,pdf,zip,jar,gz,tgz,bz2,xz,7z,woff,woff2";
+    public static final double DEFAULT_MIN_RATIO = 0.95;
+
+    /**
+     * Bytes deflated to estimate the compression ratio of an entry before deflating all of it
+     */
+    private static final int SAMPLE_SIZE = 64 * 1024;
+
+    private final Set<String> storedExtensions;
+    private final int level;
+    private final int strategy;
+    private final double minRatio;
+
+    private final AtomicLong deflatedEntries = new AtomicLong();
+    private final AtomicLong deflatedBytes = new AtomicLong();
+    private final AtomicLong deflatedCompressedBytes = new AtomicLong();
+    private final AtomicLong deflateNanos = new AtomicLong();
+    private final AtomicLong storedEntries = new AtomicLong();
+    private final AtomicLong storedBytes = new AtomicLong();
+
+    /**
+     * @param storedExtensions comma separated extensions of the files that are always STORED
+     * @param level            Deflater level (0-9, or -1 for the default one)
+     * @param strategy         Deflater strategy, one of `default`, `filtered` or `huffman_only`
+     * @param minRatio         entries whose compressed size is bigger than this ratio of their size are STORED
+     * @throws IllegalArgumentException if any value is out of range
+     */
+    public CompressionPolicy(String storedExtensions, int level, String strategy, double minRatio) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException(String.format("Invalid compression level [%d], expected a value between -1 and 9", level));
+        }
+        if (minRatio <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid minimum compression ratio [%s], expected a value greater than 0", minRatio));
+        }
+        this.storedExtensions = parseExtensions(storedExtensions);
+        this.level = level;
+        this.strategy = parseStrategy(strategy);
+        this.minRatio = minRatio;
+    }
+
+    /**
+     * @return the default policy, equivalent to deflating everything as {@link java.util.zip.ZipOutputStream} does
+     * except for the {@link #DEFAULT_STORED_EXTENSIONS} and entries with poor compression ratio
+     */
+    public static CompressionPolicy defaultPolicy() {
+        return new CompressionPolicy(DEFAULT_STORED_EXTENSIONS, Deflater.DEFAULT_COMPRESSION, "default", DEFAULT_MIN_RATIO);
+    }
+
+    /**
+     * @return the entry compressed as this policy dictates
+     */
+    public CompressedEntry compress(String name, byte[] content) throws IOException {
+        if (storedExtensions.contains(getExtension(name))) {
+            return store(name, content);
+        }
+        final long start = System.nanoTime();
+        if (content.length > SAMPLE_SIZE) {
+            final CompressedEntry sample = CompressedEntry.deflate(name, Arrays.copyOf(content, SAMPLE_SIZE), level, strategy);
+            if (isPoorRatio(sample)) {
+                deflateNanos.addAndGet(System.nanoTime() - start);
+                return store(name, content);
+            }
+        }
+        final CompressedEntry deflated = CompressedEntry.deflate(name, content, level, strategy);
+        deflateNanos.addAndGet(System.nanoTime() - start);
+        if (isPoorRatio(deflated)) {
+            return store(name, content);
+        }
+        deflatedEntries.incrementAndGet();
+        deflatedBytes.addAndGet(deflated.getSize());
+        deflatedCompressedBytes.addAndGet(deflated.getCompressedSize());
+        return deflated;
+    }
+
+    /**
+     * @return a human readable summary of the entries deflated and stored so far, with an estimation of the time saved
+     * by not deflating the stored ones (based on the throughput of the deflated ones)
+     */
+    public String getSummary() {
+        final long deflatedMillis = TimeUnit.NANOSECONDS.toMillis(deflateNanos.get());
+        final long savedMillis = deflatedBytes.get() == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(storedBytes.get() * deflateNanos.get() / deflatedBytes.get());
+        return String.format("deflated %d entries (%d bytes into %d bytes) in %d ms, stored %d entries (%d bytes) without deflating them (~%d ms saved)",
+                deflatedEntries.get(), deflatedBytes.get(), deflatedCompressedBytes.get(), deflatedMillis, storedEntries.get(), storedBytes.get(), savedMillis);
+    }
+
+    /**
+     * @return the configuration of this policy, as it changes the content of the archives
+     */
+    public String getSettings() {
+        return String.format("stored=%s,level=%d,strategy=%d,minRatio=%s", storedExtensions, level, strategy, minRatio);
+    }
+
+    private CompressedEntry store(String name, byte[] content) {
+        storedEntries.incrementAndGet();
+        storedBytes.addAndGet(content.length);
+        return CompressedEntry.store(name, content);
+    }
+
+    private boolean isPoorRatio(CompressedEntry entry) {
+        return entry.getSize() > 0 && entry.getCompressedSize() > entry.getSize() * minRatio;
+    }
+
+    private static String getExtension(String name) {
+        final int slash = name.lastIndexOf('/');
+        final int dot = name.lastIndexOf('.');
+        return dot > slash ? name.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static Set<String> parseExtensions(String extensions) {
+        final Set<String> result = new TreeSet<>();
+        if (extensions != null) {
+            for (String extension : extensions.split(",")) {
+                final String trimmed = extension.trim().toLowerCase(Locale.ROOT);
+                if (!trimmed.isEmpty()) {
+                    result.add(trimmed.startsWith(".") ? trimmed.substring(1) : trimmed);
+                }
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    private static int parseStrategy(String strategy) {
+        switch (strategy == null ? "default" : strategy.toLowerCase(Locale.ROOT)) {
+            case "default":
+                return Deflater.DEFAULT_STRATEGY;
+            case "filtered":
+                return Deflater.FILTERED;
+            case "huffman_only":
+                return Deflater.HUFFMAN_ONLY;
+            default:
+                throw new IllegalArgumentException(String.format("Invalid compression strategy [%s], expected one of [default, filtered, huffman_only]", strategy));
+        }
+    }
+}
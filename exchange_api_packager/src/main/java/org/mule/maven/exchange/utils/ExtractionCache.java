@@ -0,0 +1,310 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange.utils;
+
+import org.apache.maven.artifact.Artifact;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * User level cache of extracted dependencies, shared by every project (and every build) of the machine, so released
+ * assets are unzipped once instead of on every clean build. Each tree is keyed by the GAV and the checksum of the
+ * artifact ({@code groupId/assetId/version/sha256}) and is linked into the projects by hard links, or copied where
+ * hard links aren't available. The checksum of each artifact is kept along with its trees, and only computed again
+ * when the size or the modification time of the artifact change.
+ * <p>
+ * Linked files share their content with the cache, so the cached files are read-only: writing into them in place
+ * fails instead of corrupting the cache. Files are replaced by deleting them first (as {@link Archives} does).
+ * <p>
+ * Builds running at the same time are safe: trees are extracted into a temporal directory and published with an atomic
+ * move, eviction moves them out of the way atomically before deleting them, and a build that loses a tree while
+ * linking it extracts the artifact directly instead. Least recently used trees are evicted once the cache exceeds its
+ * maximum size, by a single build at a time.
+ */
+public class ExtractionCache {
+
+    private static final String CONTENT = "content";
+    private static final String INFO = "info";
+    private static final String CHECKSUMS = "checksums";
+    private static final String SEPARATOR = "\t";
+    private static final String TEMPORAL = ".tmp";
+    private static final String TRASH = ".trash";
+    private static final String LOCK = ".lock";
+
+    /**
+     * Depth of the trees within the cache: groupId/assetId/version/sha256
+     */
+    private static final int TREE_DEPTH = 4;
+
+    /**
+     * Temporal directories older than this are leftovers of interrupted builds
+     */
+    private static final long STALE_TEMPORAL_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final Path root;
+    private final long maxSize;
+    private final AtomicBoolean hardLinks = new AtomicBoolean(true);
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private final AtomicInteger linkedFiles = new AtomicInteger();
+    private final AtomicInteger copiedFiles = new AtomicInteger();
+
+    /**
+     * @param directory root of the cache
+     * @param maxSize   size in bytes the cache is reduced to by {@link #evict()}
+     */
+    public ExtractionCache(File directory, long maxSize) {
+        this.root = directory.toPath().toAbsolutePath().normalize();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Populates {@code targetDirectory} with the extracted content of the {@code artifact}, extracting it into the
+     * cache first if it isn't there yet.
+     */
+    public void extract(Artifact artifact, File targetDirectory) throws IOException {
+        final Path versionDirectory = root.resolve(artifact.getGroupId())
+                .resolve(artifact.getArtifactId())
+                .resolve(artifact.getVersion());
+        final Path tree = versionDirectory.resolve(checksum(versionDirectory.resolve(CHECKSUMS), artifact.getFile()));
+        if (Files.isDirectory(tree)) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            publish(artifact.getFile(), tree);
+        }
+        try {
+            link(tree.resolve(CONTENT), targetDirectory.toPath());
+            Files.setLastModifiedTime(tree.resolve(INFO), FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (NoSuchFileException e) {
+            // evicted by another build while it was being linked
+            Archives.extractConcurrently(artifact.getFile(), targetDirectory);
+        }
+    }
+
+    /**
+     * Evicts the least recently used trees until the cache is within its maximum size, unless another build is
+     * already evicting them.
+     *
+     * @return number of trees evicted
+     */
+    public int evict() throws IOException {
+        Files.createDirectories(root);
+        try (FileChannel channel = FileChannel.open(root.resolve(LOCK), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = tryLock(channel)) {
+            if (lock == null) {
+                return 0;
+            }
+            Archives.delete(root.resolve(TRASH));
+            deleteStaleTemporals();
+            final List<CachedTree> trees = listTrees();
+            long size = trees.stream().mapToLong(tree -> tree.size).sum();
+            trees.sort(Comparator.comparingLong(tree -> tree.lastUsed));
+            int evicted = 0;
+            for (CachedTree tree : trees) {
+                if (size <= maxSize) {
+                    break;
+                }
+                final Path trashed = root.resolve(TRASH).resolve(UUID.randomUUID().toString());
+                Files.createDirectories(trashed.getParent());
+                Files.move(tree.path, trashed, StandardCopyOption.ATOMIC_MOVE);
+                Archives.delete(trashed);
+                size -= tree.size;
+                evicted++;
+            }
+            return evicted;
+        }
+    }
+
+    /**
+     * @return a human readable summary of the use of the cache so far
+     */
+    public String getSummary() {
+        return String.format("%d dependencies from the cache, %d added to it, %d files hard linked, %d files copied",
+                hits.get(), misses.get(), linkedFiles.get(), copiedFiles.get());
+    }
+
+    /**
+     * @param checksums file with the known checksums of the artifacts of a version, by their file name, size and
+     *                  modification time
+     * @return the SHA-256 checksum of the {@code artifact} file, computed only if it isn't known yet
+     */
+    private static String checksum(Path checksums, File artifact) throws IOException {
+        final String key = String.join(SEPARATOR, artifact.getName(), Long.toString(artifact.length()), Long.toString(artifact.lastModified()));
+        final List<String> lines = new ArrayList<>();
+        if (Files.isRegularFile(checksums)) {
+            try {
+                for (String line : Files.readAllLines(checksums, StandardCharsets.UTF_8)) {
+                    if (line.startsWith(key + SEPARATOR)) {
+                        return line.substring(key.length() + SEPARATOR.length());
+                    }
+                    if (!line.startsWith(artifact.getName() + SEPARATOR)) {
+                        lines.add(line);
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                // replaced by another build in the meantime
+            }
+        }
+        final String checksum = ArchiveManifest.sha256(artifact);
+        lines.add(key + SEPARATOR + checksum);
+        // builds updating it at the same time may drop each other's checksums, which are just computed again
+        Files.createDirectories(checksums.getParent());
+        final Path temporal = checksums.resolveSibling(CHECKSUMS + "." + UUID.randomUUID());
+        Files.write(temporal, lines, StandardCharsets.UTF_8);
+        Files.move(temporal, checksums, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return checksum;
+    }
+
+    /**
+     * Extracts the {@code zip} into a temporal directory and moves it to {@code tree} atomically, so that other builds
+     * never see a tree partially extracted. The extracted files are left read-only.
+     */
+    private void publish(File zip, Path tree) throws IOException {
+        final Path temporal = root.resolve(TEMPORAL).resolve(UUID.randomUUID().toString());
+        try {
+            final Path content = temporal.resolve(CONTENT);
+            Archives.extractConcurrently(zip, content.toFile());
+            final List<Path> files;
+            try (Stream<Path> paths = Files.walk(content)) {
+                files = paths.filter(Files::isRegularFile).collect(Collectors.toList());
+            }
+            long size = 0;
+            for (Path file : files) {
+                file.toFile().setReadOnly();
+                size += file.toFile().length();
+            }
+            Files.write(temporal.resolve(INFO), Long.toString(size).getBytes(StandardCharsets.UTF_8));
+            Files.createDirectories(tree.getParent());
+            try {
+                Files.move(temporal, tree, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileSystemException e) {
+                if (!Files.isDirectory(tree)) {
+                    throw e;
+                }
+                // published by another build in the meantime
+            }
+        } finally {
+            Archives.delete(temporal);
+        }
+    }
+
+    private void link(Path content, Path target) throws IOException {
+        Files.walkFileTree(content, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(content.relativize(dir)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                linkFile(file, target.resolve(content.relativize(file)));
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void linkFile(Path source, Path target) throws IOException {
+        // an existing file may be a link to another tree, it must be replaced rather than overwritten
+        Archives.deleteFile(target);
+        if (hardLinks.get()) {
+            try {
+                Files.createLink(target, source);
+                linkedFiles.incrementAndGet();
+                return;
+            } catch (NoSuchFileException e) {
+                throw e;
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                // e.g. the cache and the project are in different file systems
+                hardLinks.set(false);
+            }
+        }
+        Archives.copyFile(source, target);
+        copiedFiles.incrementAndGet();
+    }
+
+    private List<CachedTree> listTrees() throws IOException {
+        try (Stream<Path> paths = Files.walk(root, TREE_DEPTH)) {
+            final List<Path> infos = paths
+                    .filter(path -> root.relativize(path).getNameCount() == TREE_DEPTH && !root.relativize(path).getName(0).toString().startsWith("."))
+                    .map(path -> path.resolve(INFO))
+                    .filter(Files::isRegularFile)
+                    .collect(Collectors.toList());
+            final List<CachedTree> trees = new ArrayList<>();
+            for (Path info : infos) {
+                try {
+                    final long size = Long.parseLong(new String(Files.readAllBytes(info), StandardCharsets.UTF_8).trim());
+                    trees.add(new CachedTree(info.getParent(), size, Files.getLastModifiedTime(info).toMillis()));
+                } catch (NoSuchFileException | NumberFormatException e) {
+                    // being published or corrupted, left as is
+                }
+            }
+            return trees;
+        }
+    }
+
+    private void deleteStaleTemporals() throws IOException {
+        final Path temporals = root.resolve(TEMPORAL);
+        if (!Files.isDirectory(temporals)) {
+            return;
+        }
+        final long staleBefore = System.currentTimeMillis() - STALE_TEMPORAL_MILLIS;
+        try (Stream<Path> paths = Files.list(temporals)) {
+            for (Path temporal : paths.collect(Collectors.toList())) {
+                if (Files.getLastModifiedTime(temporal).toMillis() < staleBefore) {
+                    Archives.delete(temporal);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the lock, or null if another build (or another thread of this one) holds it
+     */
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    private static class CachedTree {
+
+        private final Path path;
+        private final long size;
+        private final long lastUsed;
+
+        private CachedTree(Path path, long size, long lastUsed) {
+            this.path = path;
+            this.size = size;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange.utils;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.project.MavenProject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mule.maven.exchange.utils.ApiProjectConstants.EXCHANGE_MODULES;
+
+/**
+ * Dependencies packaged within the fat API, and the folder each one of them gets in it.
+ */
+public final class PackagedDependencies {
+
+    /**
+     * Scopes of the packaged dependencies, the validation only ones are mapped to `provided` by the polyglot extension
+     */
+    private static final List<String> PACKAGED_SCOPES = Arrays.asList(Artifact.SCOPE_COMPILE, Artifact.SCOPE_RUNTIME);
+
+    private static final String ZIP_TYPE = "zip";
+
+    private PackagedDependencies() {
+    }
+
+    /**
+     * @return the resolved zip dependencies (direct and transitive) of the {@code project} to be packaged within the
+     * fat API, in resolution order
+     */
+    public static List<Artifact> get(MavenProject project) {
+        final List<Artifact> result = new ArrayList<>();
+        for (Object element : project.getArtifacts()) {
+            final Artifact artifact = (Artifact) element;
+            if (ZIP_TYPE.equals(artifact.getType()) && PACKAGED_SCOPES.contains(artifact.getScope()) && artifact.getFile() != null) {
+                result.add(artifact);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Indexes the packaged dependencies by the folder they get within the fat API, built once from their coordinates
+     * so that the destination of every archive is a lookup rather than a match against the repository layout.
+     *
+     * @return the artifacts of every folder, in resolution order (several artifacts share a folder when they only
+     * differ in their classifier). The folder gets the files of all of them, those in more than one artifact with the
+     * content of the last one, both when extracted by `generate-full-api` and when streamed by `package-api`
+     */
+    public static Map<String, List<Artifact>> byFolder(MavenProject project) {
+        final Map<String, List<Artifact>> folders = new LinkedHashMap<>();
+        for (Artifact artifact : get(project)) {
+            folders.computeIfAbsent(getFolder(artifact), folder -> new ArrayList<>()).add(artifact);
+        }
+        return folders;
+    }
+
+    /**
+     * @return the slash separated folder of the {@code artifact} within the fat API,
+     * `exchange_modules/groupId/assetId/version` (with the groupId as is, dots included)
+     */
+    public static String getFolder(Artifact artifact) {
+        return String.join("/", EXCHANGE_MODULES, artifact.getGroupId(), artifact.getArtifactId(), artifact.getBaseVersion());
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange.utils;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.IOUtils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Compresses zip entries concurrently on a bounded pool while writing them, in the same order they were added, into the
+ * target archives. At most a couple of entries per thread, and {@link #DEFAULT_MAX_PENDING_BYTES} of their contents,
+ * are kept in memory waiting to be written, so big archives don't need to be held entirely in memory. An entry bigger
+ * than that is only compressed once every previous entry was written. Entries copied from other zips above
+ * {@link #STREAMED_ENTRY_SIZE} aren't held in memory at all, they are streamed from their zips as they are written.
+ */
+public class ParallelZipWriter implements Closeable {
+
+    public static final long DEFAULT_MAX_PENDING_BYTES = 64 * 1024 * 1024;
+
+    /**
+     * Compressed size from which the entries of other zips are streamed rather than read concurrently
+     */
+    public static final long STREAMED_ENTRY_SIZE = 1024 * 1024;
+
+    private final ExecutorService executor;
+    private final int maxPendingEntries;
+    private final long maxPendingBytes;
+    private final Long fixedTime;
+    private final CompressionPolicy compressionPolicy;
+    private final Deque<PendingEntry> pendingEntries = new ArrayDeque<>();
+    private final List<ZipFile> sourceZips = new ArrayList<>();
+    private long pendingBytes;
+    private Consumer<CompressedEntry> listener = entry -> {
+    };
+
+    /**
+     * @param threads maximum number of entries being deflated at the same time
+     */
+    public ParallelZipWriter(int threads) {
+        this(threads, null, CompressionPolicy.defaultPolicy());
+    }
+
+    /**
+     * @param threads           maximum number of entries being compressed at the same time
+     * @param fixedTime         time for every entry in reproducible archives, or null to use the current one (see
+     *                          {@link CompressedEntry#writeTo(ZipArchiveOutputStream, Long)})
+     * @param compressionPolicy decides how each entry is compressed
+     */
+    public ParallelZipWriter(int threads, Long fixedTime, CompressionPolicy compressionPolicy) {
+        this(threads, fixedTime, compressionPolicy, DEFAULT_MAX_PENDING_BYTES);
+    }
+
+    /**
+     * @param maxPendingBytes bytes of content kept in memory at most by the entries being compressed or waiting to be
+     *                        written, unless a single entry is bigger
+     * @see #ParallelZipWriter(int, Long, CompressionPolicy)
+     */
+    public ParallelZipWriter(int threads, Long fixedTime, CompressionPolicy compressionPolicy, long maxPendingBytes) {
+        final int poolSize = Math.max(1, threads);
+        this.executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            final Thread thread = new Thread(runnable, "exchange-zip-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxPendingEntries = poolSize * 2;
+        this.maxPendingBytes = maxPendingBytes;
+        this.fixedTime = fixedTime;
+        this.compressionPolicy = compressionPolicy;
+    }
+
+    /**
+     * @param listener notified of every entry once it's written, in the same order they were added
+     */
+    public void setListener(Consumer<CompressedEntry> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Schedules the deflation of an entry, that will be written into every one of the {@code zips} after all the
+     * entries previously added.
+     *
+     * @param name    name of the entry within the archives
+     * @param size    expected size of the uncompressed content, to bound the memory held by the pending entries
+     * @param content provides the uncompressed content of the entry, it's called from the pool
+     */
+    public void add(String name, long size, Callable<byte[]> content, ZipArchiveOutputStream... zips) throws IOException {
+        add(name, size, content, null, zips);
+    }
+
+    /**
+     * Same as {@link #add(String, long, Callable, ZipArchiveOutputStream...)}, also writing the entry into {@code tar}.
+     *
+     * @param tar tar archive that gets the entry too, or null
+     */
+    public void add(String name, long size, Callable<byte[]> content, TarZstWriter tar, ZipArchiveOutputStream... zips) throws IOException {
+        // the content and its compressed copy, which is never much bigger than the content
+        final long weight = 2 * size;
+        reserve(weight);
+        final Future<CompressedEntry> entry = executor.submit(() -> {
+            final byte[] bytes = content.call();
+            final CompressedEntry compressedEntry = compressionPolicy.compress(name, bytes);
+            return tar != null ? compressedEntry.withContent(bytes) : compressedEntry;
+        });
+        enqueue(new PendingEntry(entry, weight, tar, zips));
+    }
+
+    /**
+     * Schedules the copy of the entries of {@code folderZips} under the {@code prefix} folder, as they are compressed
+     * within them, so they are neither inflated nor deflated again. An entry found in several of the zips is copied
+     * once, from the last one, the same as if the zips were extracted into the folder one after the other. The zips are
+     * kept open until this writer is closed.
+     *
+     * @param filter entries to copy, directories are always left out
+     * @param sorted true to copy the entries sorted by name, false to copy them in the order they have within the zips
+     * @param tar    tar archive that gets the entries too (inflated, as it has its own compression), or null
+     * @return number of entries scheduled
+     */
+    public int addRawEntries(String prefix, List<File> folderZips, Predicate<String> filter, boolean sorted, TarZstWriter tar, ZipArchiveOutputStream... zips) throws IOException {
+        final Map<String, ZipFile> entryZips = new LinkedHashMap<>();
+        final Map<String, ZipArchiveEntry> entries = new LinkedHashMap<>();
+        for (File folderZip : folderZips) {
+            final ZipFile zipFile = new ZipFile(folderZip);
+            sourceZips.add(zipFile);
+            for (ZipArchiveEntry entry : Collections.list(zipFile.getEntriesInPhysicalOrder())) {
+                if (!entry.isDirectory() && filter.test(entry.getName())) {
+                    entryZips.put(entry.getName(), zipFile);
+                    entries.put(entry.getName(), entry);
+                }
+            }
+        }
+        final List<String> names = new ArrayList<>(entries.keySet());
+        if (sorted) {
+            Collections.sort(names);
+        }
+        for (String name : names) {
+            addRawEntry(prefix + "/" + name, entryZips.get(name), entries.get(name), tar, zips);
+        }
+        return names.size();
+    }
+
+    private void addRawEntry(String name, ZipFile zipFile, ZipArchiveEntry entry, TarZstWriter tar, ZipArchiveOutputStream... zips) throws IOException {
+        if (entry.getCompressedSize() >= STREAMED_ENTRY_SIZE) {
+            // nothing to compute, the writing thread copies it straight from the zip
+            enqueue(new PendingEntry(CompletableFuture.completedFuture(CompressedEntry.streamedFrom(name, zipFile, entry)), 0, tar, zips));
+            return;
+        }
+        final long weight = entry.getCompressedSize() + (tar != null ? entry.getSize() : 0);
+        reserve(weight);
+        final Future<CompressedEntry> compressedEntry = executor.submit(() -> {
+            final CompressedEntry copy;
+            try (InputStream rawContent = zipFile.getRawInputStream(entry)) {
+                copy = CompressedEntry.copyOf(name, entry, rawContent);
+            }
+            if (tar == null) {
+                return copy;
+            }
+            try (InputStream content = zipFile.getInputStream(entry)) {
+                return copy.withContent(IOUtils.toByteArray(content));
+            }
+        });
+        enqueue(new PendingEntry(compressedEntry, weight, tar, zips));
+    }
+
+    /**
+     * Waits for every pending entry and writes it, must be called before closing the archives.
+     */
+    public void flush() throws IOException {
+        while (!pendingEntries.isEmpty()) {
+            writeNext();
+        }
+    }
+
+    @Override
+    public void close() {
+        pendingEntries.forEach(pendingEntry -> pendingEntry.entry.cancel(true));
+        pendingEntries.clear();
+        pendingBytes = 0;
+        executor.shutdownNow();
+        for (ZipFile sourceZip : sourceZips) {
+            IOUtils.closeQuietly(sourceZip);
+        }
+        sourceZips.clear();
+    }
+
+    /**
+     * Writes the pending entries until there's room for another one holding {@code weight} bytes in memory.
+     */
+    private void reserve(long weight) throws IOException {
+        while (!pendingEntries.isEmpty() && (pendingEntries.size() >= maxPendingEntries || pendingBytes + weight > maxPendingBytes)) {
+            writeNext();
+        }
+    }
+
+    private void enqueue(PendingEntry pendingEntry) throws IOException {
+        pendingEntries.addLast(pendingEntry);
+        pendingBytes += pendingEntry.weight;
+        while (pendingEntries.size() > maxPendingEntries) {
+            writeNext();
+        }
+    }
+
+    private void writeNext() throws IOException {
+        final PendingEntry pendingEntry = pendingEntries.removeFirst();
+        pendingBytes -= pendingEntry.weight;
+        final CompressedEntry entry;
+        try {
+            entry = pendingEntry.entry.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while deflating zip entries");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Unexpected error while deflating zip entries", e.getCause());
+        }
+        for (ZipArchiveOutputStream zip : pendingEntry.zips) {
+            entry.writeTo(zip, fixedTime);
+        }
+        if (pendingEntry.tar != null) {
+            try (InputStream content = entry.openContent()) {
+                pendingEntry.tar.write(entry.getName(), entry.getSize(), content, fixedTime);
+            }
+        }
+        listener.accept(entry);
+    }
+
+    private static class PendingEntry {
+
+        private final Future<CompressedEntry> entry;
+        private final long weight;
+        private final TarZstWriter tar;
+        private final ZipArchiveOutputStream[] zips;
+
+        /**
+         * @param weight bytes held in memory by the entry until it's written
+         */
+        private PendingEntry(Future<CompressedEntry> entry, long weight, TarZstWriter tar, ZipArchiveOutputStream[] zips) {
+            this.entry = entry;
+            this.weight = weight;
+            this.tar = tar;
+            this.zips = zips;
+        }
+    }
+}
@@ -4,15 +4,17 @@
 //Import all needed packages
 package org.mule.maven.exchange.utils;
 
-import java.io.*;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+
+import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
 
 public class ZipUtils {
 
@@ -26,43 +28,25 @@ public class ZipUtils {
 
 
     public void zipIt(String zipFile) {
-        byte[] buffer = new byte[1024];
-        String source = targetDir.getName();
-        FileOutputStream fos = null;
-        ZipOutputStream zos = null;
-        try {
-            fos = new FileOutputStream(zipFile);
-            zos = new ZipOutputStream(fos);
+        zipIt(zipFile, null);
+    }
 
+    /**
+     * @param fixedTime time for every entry, so that the same files always produce the same archive, or null to use
+     *                  the current time
+     */
+    public void zipIt(String zipFile, Long fixedTime) {
+        String source = targetDir.getName();
+        try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(new File(zipFile))) {
             System.out.println("Output to Zip : " + zipFile);
-            FileInputStream in = null;
-
             for (String file : this.fileList) {
                 System.out.println("File Added : " + file);
-                ZipEntry ze = new ZipEntry(source + File.separator + file);
-                zos.putNextEntry(ze);
-                try {
-                    in = new FileInputStream(targetDir.getAbsolutePath() + File.separator + file);
-                    int len;
-                    while ((len = in.read(buffer)) > 0) {
-                        zos.write(buffer, 0, len);
-                    }
-                } finally {
-                    in.close();
-                }
+                final byte[] content = Files.readAllBytes(Paths.get(targetDir.getAbsolutePath(), file));
+                CompressedEntry.deflate(source + File.separator + file, content).writeTo(zos, fixedTime);
             }
-
-            zos.closeEntry();
             System.out.println("Folder successfully compressed");
-
         } catch (IOException ex) {
             ex.printStackTrace();
-        } finally {
-            try {
-                zos.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
         }
     }
 
@@ -74,6 +58,8 @@ public class ZipUtils {
         if (node.isDirectory()) {
             String[] subNote = node.list();
             if (subNote != null) {
+                // file system order is not stable, sort them so that archives are always the same
+                Arrays.sort(subNote);
                 for (String filename : subNote) {
                     generateFileList(new File(node, filename));
                 }
@@ -86,39 +72,10 @@ public class ZipUtils {
     }
 
     public static void unzip(final String zipFilePath, final String unzipLocation) throws IOException {
-
-        if (!(Files.exists(Paths.get(unzipLocation)))) {
-            Files.createDirectories(Paths.get(unzipLocation));
-        }
-        try (ZipInputStream zipInputStream = new ZipInputStream(new FileInputStream(zipFilePath))) {
-            ZipEntry entry = zipInputStream.getNextEntry();
-            while (entry != null) {
-                Path filePath = Paths.get(unzipLocation, entry.getName());
-                if (!entry.isDirectory()) {
-                    unzipFiles(zipInputStream, filePath);
-                } else {
-                    Files.createDirectories(filePath);
-                }
-
-                zipInputStream.closeEntry();
-                entry = zipInputStream.getNextEntry();
-            }
-        }
+        Archives.extract(new File(zipFilePath), new File(unzipLocation));
     }
 
     public static void unzipFiles(final ZipInputStream zipInputStream, final Path unzipFilePath) throws IOException {
-
-        if (!(Files.exists(unzipFilePath.getParent()))) {
-            Files.createDirectories(unzipFilePath.getParent());
-        }
-
-        try (BufferedOutputStream bos = new BufferedOutputStream(new FileOutputStream(unzipFilePath.toAbsolutePath().toString()))) {
-            byte[] bytesIn = new byte[1024];
-            int read = 0;
-            while ((read = zipInputStream.read(bytesIn)) != -1) {
-                bos.write(bytesIn, 0, read);
-            }
-        }
-
+        Archives.copy(zipInputStream, unzipFilePath);
     }
-}
\ No newline at end of file
+}
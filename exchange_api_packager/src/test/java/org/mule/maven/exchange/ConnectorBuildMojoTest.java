@@ -0,0 +1,153 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange;
+
+import org.apache.maven.Maven;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugin.LegacySupport;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.transfer.project.install.ProjectInstaller;
+import org.eclipse.aether.RepositorySystemSession;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mule.maven.exchange.utils.ApiProjectConstants;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Runs the goal against a stand-in of the running Maven, which records the nested requests and swaps the session seen
+ * by legacy components the way the real one does.
+ */
+public class ConnectorBuildMojoTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final List<MavenExecutionRequest> nestedRequests = new ArrayList<>();
+    private final List<MavenProject> installedProjects = new ArrayList<>();
+    private final StandInLegacySupport legacySupport = new StandInLegacySupport();
+    private final Map<String, Object> pluginContext = new HashMap<>();
+    private final MavenProject connectorProject = new MavenProject(new Model());
+
+    private MavenSession session;
+    private File connectorPom;
+
+    @Before
+    public void setUp() throws Exception {
+        connectorProject.setGroupId("org.mule.test");
+        connectorProject.setArtifactId("connector");
+        connectorProject.setVersion("1.0.0");
+        connectorPom = new File(temporaryFolder.newFolder(ApiProjectConstants.REST_CONNECT_OUTPUTDIR), "pom.xml");
+        connectorPom.createNewFile();
+
+        final MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+        request.setGoals(Collections.singletonList("install"));
+        request.getUserProperties().setProperty("some.property", "value");
+        session = newSession(request);
+        legacySupport.setSession(session);
+    }
+
+    @Test
+    public void buildsTheConnectorInProcessOncePerSession() throws Exception {
+        newMojo().execute();
+        newMojo().execute();
+
+        assertEquals(1, nestedRequests.size());
+        final MavenExecutionRequest nestedRequest = nestedRequests.get(0);
+        assertEquals(connectorPom, nestedRequest.getPom());
+        assertEquals(Collections.singletonList("package"), nestedRequest.getGoals());
+        assertEquals("value", nestedRequest.getUserProperties().getProperty("some.property"));
+        assertEquals("true", nestedRequest.getUserProperties().getProperty("skipDocumentation"));
+        assertEquals("true", nestedRequest.getUserProperties().getProperty(ApiProjectConstants.MAVEN_NESTED_BUILD));
+        // the running build is left as it was
+        assertEquals(Collections.singletonList("install"), session.getRequest().getGoals());
+        assertNull(session.getUserProperties().getProperty(ApiProjectConstants.MAVEN_NESTED_BUILD));
+
+        assertEquals(2, installedProjects.size());
+        assertSame(connectorProject, installedProjects.get(0));
+        assertSame(connectorProject, installedProjects.get(1));
+    }
+
+    @Test
+    public void restoresTheSessionOfTheRunningBuild() throws Exception {
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        newMojo().execute();
+
+        assertSame(session, legacySupport.getSession());
+        assertSame(contextClassLoader, Thread.currentThread().getContextClassLoader());
+    }
+
+    private ConnectorBuildMojo newMojo() throws Exception {
+        final Maven maven = request -> {
+            nestedRequests.add(request);
+            // the real one replaces the session, the context class loader, and clears the session once done
+            legacySupport.setSession(newSession(request));
+            Thread.currentThread().setContextClassLoader(new ClassLoader() {
+            });
+            legacySupport.setSession(null);
+            final MavenExecutionResult result = new DefaultMavenExecutionResult();
+            result.setProject(connectorProject);
+            return result;
+        };
+        final ProjectInstaller projectInstaller = (buildingRequest, request) -> installedProjects.add(request.getProject());
+
+        final ConnectorBuildMojo mojo = new ConnectorBuildMojo();
+        mojo.setPluginContext(pluginContext);
+        setField(mojo, "project", new MavenProject(new Model()));
+        setField(mojo, "mavenSession", session);
+        setField(mojo, "maven", maven);
+        setField(mojo, "legacySupport", legacySupport);
+        setField(mojo, "projectInstaller", projectInstaller);
+        setField(mojo, "connectorPom", connectorPom);
+        return mojo;
+    }
+
+    private static void setField(Object target, String name, Object value) throws ReflectiveOperationException {
+        final Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static MavenSession newSession(MavenExecutionRequest request) {
+        return new MavenSession(null, null, request, new DefaultMavenExecutionResult());
+    }
+
+    private static class StandInLegacySupport implements LegacySupport {
+
+        private MavenSession session;
+
+        @Override
+        public void setSession(MavenSession session) {
+            this.session = session;
+        }
+
+        @Override
+        public MavenSession getSession() {
+            return session;
+        }
+
+        @Override
+        public RepositorySystemSession getRepositorySession() {
+            return session != null ? session.getRepositorySession() : null;
+        }
+    }
+}
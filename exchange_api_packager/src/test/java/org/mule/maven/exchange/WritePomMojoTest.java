@@ -0,0 +1,81 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.apache.maven.project.MavenProject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class WritePomMojoTest {
+
+    private static final FileTime PREVIOUS_BUILD = FileTime.fromMillis(1_000_000_000_000L);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File pomFile;
+    private Model model;
+
+    @Before
+    public void setUp() throws IOException {
+        // as left by the polyglot extension when serving the model from memory
+        pomFile = temporaryFolder.newFile(".exchange.xml");
+        model = new Model();
+        model.setModelVersion("4.0.0");
+        model.setGroupId("org.mule.test");
+        model.setArtifactId("api");
+        model.setVersion("1.0.0");
+    }
+
+    @Test
+    public void writesThePomOnlyWhenItsContentChanges() throws Exception {
+        newMojo().execute();
+        assertEquals(toXml(model), read(pomFile));
+
+        Files.setLastModifiedTime(pomFile.toPath(), PREVIOUS_BUILD);
+        newMojo().execute();
+        assertEquals(PREVIOUS_BUILD, Files.getLastModifiedTime(pomFile.toPath()));
+
+        model.setVersion("1.0.1");
+        newMojo().execute();
+        assertEquals(toXml(model), read(pomFile));
+        assertNotEquals(PREVIOUS_BUILD, Files.getLastModifiedTime(pomFile.toPath()));
+    }
+
+    private WritePomMojo newMojo() throws ReflectiveOperationException {
+        final MavenProject project = new MavenProject(model.clone());
+        project.setOriginalModel(model.clone());
+        project.setFile(pomFile);
+        final WritePomMojo mojo = new WritePomMojo();
+        final Field field = WritePomMojo.class.getDeclaredField("project");
+        field.setAccessible(true);
+        field.set(mojo, project);
+        return mojo;
+    }
+
+    private static String toXml(Model model) throws IOException {
+        final StringWriter output = new StringWriter();
+        new MavenXpp3Writer().write(output, model);
+        return output.toString();
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange.utils;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ArchiveManifestTest {
+
+    private static final String FOLDER = "exchange_modules/org.test/dep/1.0.0";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File manifestFile;
+    private File archive;
+    private File ramlZip;
+    private File oasZip;
+    private List<ArchiveSource> sources;
+
+    @Before
+    public void setUp() throws IOException {
+        manifestFile = new File(temporaryFolder.getRoot(), "api.zip.manifest");
+        archive = write("api.zip", "archive");
+        ramlZip = write("dep-1.0.0-raml.zip", "raml");
+        oasZip = write("dep-1.0.0-oas.zip", "oas");
+        sources = Arrays.asList(new ArchiveSource("exchange.json", write("exchange.json", "{}"), false),
+                new ArchiveSource(FOLDER, "org.test:dep:zip:raml:1.0.0", ramlZip, true, true),
+                new ArchiveSource(FOLDER, "org.test:dep:zip:oas:1.0.0", oasZip, true, true));
+    }
+
+    @Test
+    public void unchangedInputsReuseTheArchives() throws IOException {
+        writeManifest(settings("1.0.0"));
+
+        assertNull(ArchiveManifest.create(sources, settings("1.0.0"), read(), 2).getChangeReason(read(), archive));
+    }
+
+    @Test
+    public void zipsSharingAFolderAreTrackedByCoordinates() throws IOException {
+        writeManifest(settings("1.0.0"));
+
+        // the first of the zips sharing the folder, that used to be overwritten by the second one in the manifest
+        Files.write(ramlZip.toPath(), "raml, modified".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("[org.test:dep:zip:raml:1.0.0] was modified",
+                ArchiveManifest.create(sources, settings("1.0.0"), read(), 2).getChangeReason(read(), archive));
+    }
+
+    @Test
+    public void newVersionOfThePluginGeneratesTheArchivesAgain() throws IOException {
+        writeManifest(settings("1.0.0"));
+
+        assertEquals("configuration changed [pluginVersion]",
+                ArchiveManifest.create(sources, settings("1.0.1"), read(), 2).getChangeReason(read(), archive));
+    }
+
+    private void writeManifest(Map<String, String> settings) throws IOException {
+        ArchiveManifest.create(sources, settings, null, 2).write(manifestFile, archive);
+    }
+
+    private ArchiveManifest read() {
+        return ArchiveManifest.read(manifestFile);
+    }
+
+    private static Map<String, String> settings(String pluginVersion) {
+        final Map<String, String> settings = new HashMap<>();
+        settings.put("pluginVersion", pluginVersion);
+        settings.put("classifier", "raml");
+        return settings;
+    }
+
+    private File write(String name, String content) throws IOException {
+        final File file = new File(temporaryFolder.getRoot(), name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange.utils;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mule.maven.exchange.utils.ApiProjectConstants.EXCHANGE_MODULES;
+
+/**
+ * Syncs the sources of an API into its full_api directory, the way `generate-full-api` does, leaving out the
+ * dependencies extracted into `exchange_modules`.
+ */
+public class ArchivesTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File source;
+    private File target;
+    private FileFilter targetFilter;
+
+    @Before
+    public void setUp() throws IOException {
+        source = temporaryFolder.newFolder("source");
+        target = temporaryFolder.newFolder("full_api");
+        final File exchangeModules = new File(target, EXCHANGE_MODULES);
+        targetFilter = file -> !file.equals(exchangeModules);
+        write(source, "api.raml", "#%RAML 1.0");
+        write(source, "types/flight.raml", "#%RAML 1.0 DataType");
+        write(target, EXCHANGE_MODULES + "/org.test/dep/1.0.0/library.raml", "#%RAML 1.0 Library");
+        sync();
+    }
+
+    @Test
+    public void unchangedFilesAreLeftAsTheyAre() throws IOException {
+        final Archives.SyncResult result = sync();
+
+        assertEquals(0, result.getCopied());
+        assertEquals(2, result.getSkipped());
+        assertEquals(0, result.getDeleted());
+    }
+
+    @Test
+    public void touchedFilesOnlyGetTheirTimeUpdated() throws IOException {
+        final File touched = new File(source, "api.raml");
+        touched.setLastModified(touched.lastModified() + 60_000);
+
+        final Archives.SyncResult result = sync();
+
+        assertEquals(0, result.getCopied());
+        assertEquals(2, result.getSkipped());
+        assertEquals(Files.getLastModifiedTime(touched.toPath()), Files.getLastModifiedTime(new File(target, "api.raml").toPath()));
+    }
+
+    @Test
+    public void modifiedFilesAreCopied() throws IOException {
+        write(source, "api.raml", "#%RAML 1.0\ntitle: Flights");
+        write(source, "types/airport.raml", "#%RAML 1.0 DataType");
+
+        final Archives.SyncResult result = sync();
+
+        assertEquals(2, result.getCopied());
+        assertEquals(1, result.getSkipped());
+        assertEquals("#%RAML 1.0\ntitle: Flights", read(target, "api.raml"));
+        assertEquals("#%RAML 1.0 DataType", read(target, "types/airport.raml"));
+    }
+
+    @Test
+    public void removedFilesAreDeletedAlongWithTheirEmptyDirectories() throws IOException {
+        Files.delete(new File(source, "types/flight.raml").toPath());
+
+        final Archives.SyncResult result = sync();
+
+        assertEquals(1, result.getDeleted());
+        assertFalse(new File(target, "types").exists());
+        assertTrue(new File(target, "api.raml").isFile());
+    }
+
+    @Test
+    public void excludedExchangeModulesAreLeftAsTheyAre() throws IOException {
+        write(target, EXCHANGE_MODULES + "/org.test/dep/1.0.0/exchange.json", "{}");
+
+        final Archives.SyncResult result = sync();
+
+        assertEquals(0, result.getDeleted());
+        assertEquals("#%RAML 1.0 Library", read(target, EXCHANGE_MODULES + "/org.test/dep/1.0.0/library.raml"));
+        assertEquals("{}", read(target, EXCHANGE_MODULES + "/org.test/dep/1.0.0/exchange.json"));
+    }
+
+    @Test
+    public void filesGoneWhileSyncingAreNotCountedAsDeleted() throws IOException {
+        Files.delete(new File(source, "types/flight.raml").toPath());
+        final File removed = new File(target, "types/flight.raml");
+        // another tool removes the file right after it's listed
+        final FileFilter removingFilter = file -> {
+            if (file.equals(removed)) {
+                removed.delete();
+            }
+            return targetFilter.accept(file);
+        };
+
+        assertEquals(0, Archives.syncDirectory(source, target, file -> true, removingFilter).getDeleted());
+        assertFalse(new File(target, "types").exists());
+    }
+
+    private Archives.SyncResult sync() throws IOException {
+        return Archives.syncDirectory(source, target, file -> true, targetFilter);
+    }
+
+    private static void write(File directory, String name, String content) throws IOException {
+        final File file = new File(directory, name);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        // the same time for every version, so only the content tells them apart
+        Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(1_600_000_000_000L));
+    }
+
+    private static String read(File directory, String name) throws IOException {
+        return new String(Files.readAllBytes(new File(directory, name).toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange.utils;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class ExtractionCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File cacheDirectory;
+    private Artifact artifact;
+
+    @Before
+    public void setUp() throws IOException {
+        cacheDirectory = temporaryFolder.newFolder("cache");
+        artifact = artifact("dep", "1.0.0", "#%RAML 1.0 Library");
+    }
+
+    @Test
+    public void extractsIntoTheCacheOnceAndLinksItAfterwards() throws IOException {
+        final ExtractionCache cache = new ExtractionCache(cacheDirectory, Long.MAX_VALUE);
+        final File first = temporaryFolder.newFolder("first");
+        final File second = temporaryFolder.newFolder("second");
+
+        cache.extract(artifact, first);
+        cache.extract(artifact, second);
+
+        assertEquals("#%RAML 1.0 Library", read(new File(first, "types/library.raml")));
+        assertEquals("#%RAML 1.0 Library", read(new File(second, "types/library.raml")));
+        assertTrue(cache.getSummary().startsWith("1 dependencies from the cache, 1 added to it"));
+    }
+
+    @Test
+    public void cachedFilesAreReadOnly() throws IOException {
+        final PosixFileAttributeView attributes = Files.getFileAttributeView(cacheDirectory.toPath(), PosixFileAttributeView.class);
+        assumeTrue(attributes != null);
+        final File target = temporaryFolder.newFolder("target");
+
+        new ExtractionCache(cacheDirectory, Long.MAX_VALUE).extract(artifact, target);
+
+        final Path cachedFile = getTree(artifact).resolve("content/types/library.raml");
+        assertFalse(Files.getPosixFilePermissions(cachedFile).contains(PosixFilePermission.OWNER_WRITE));
+        // replacing the linked file leaves the cached one untouched
+        Archives.copy(new ByteArrayInputStream("modified".getBytes(StandardCharsets.UTF_8)), new File(target, "types/library.raml").toPath());
+        assertEquals("#%RAML 1.0 Library", read(cachedFile.toFile()));
+    }
+
+    @Test
+    public void checksumIsOnlyComputedWhenTheArtifactChanges() throws IOException {
+        new ExtractionCache(cacheDirectory, Long.MAX_VALUE).extract(artifact, temporaryFolder.newFolder("first"));
+        // a known checksum is trusted as long as the size and the modification time of the artifact don't change
+        final Path tree = getTree(artifact);
+        final Path checksums = tree.resolveSibling("checksums");
+        Files.move(tree, tree.resolveSibling("known"));
+        Files.write(checksums, new String(Files.readAllBytes(checksums), StandardCharsets.UTF_8)
+                .replace(tree.getFileName().toString(), "known").getBytes(StandardCharsets.UTF_8));
+
+        final ExtractionCache cache = new ExtractionCache(cacheDirectory, Long.MAX_VALUE);
+        cache.extract(artifact, temporaryFolder.newFolder("second"));
+        assertTrue(cache.getSummary().startsWith("1 dependencies from the cache, 0 added to it"));
+
+        artifact.getFile().setLastModified(artifact.getFile().lastModified() - 60_000);
+        cache.extract(artifact, temporaryFolder.newFolder("third"));
+        assertTrue(cache.getSummary().startsWith("1 dependencies from the cache, 1 added to it"));
+        assertTrue(Files.isDirectory(tree));
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedDependencies() throws IOException {
+        final Artifact other = artifact("other", "2.0.0", "#%RAML 1.0 DataType");
+        final ExtractionCache cache = new ExtractionCache(cacheDirectory, 25);
+        cache.extract(artifact, temporaryFolder.newFolder("first"));
+        cache.extract(other, temporaryFolder.newFolder("second"));
+        Files.setLastModifiedTime(getTree(artifact).resolve("info"), FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+
+        assertEquals(1, cache.evict());
+
+        assertFalse(Files.exists(getTree(artifact)));
+        assertTrue(Files.isDirectory(getTree(other)));
+        assertEquals(0, cache.evict());
+    }
+
+    @Test
+    public void extractsTheArtifactWhenItsTreeIsEvictedWhileLinkingIt() throws IOException {
+        final ExtractionCache cache = new ExtractionCache(cacheDirectory, Long.MAX_VALUE);
+        cache.extract(artifact, temporaryFolder.newFolder("first"));
+        // another build evicting the tree at the same time
+        Archives.delete(getTree(artifact).resolve("content"));
+
+        final File target = temporaryFolder.newFolder("second");
+        cache.extract(artifact, target);
+
+        assertEquals("#%RAML 1.0 Library", read(new File(target, "types/library.raml")));
+    }
+
+    private Path getTree(Artifact artifact) throws IOException {
+        return cacheDirectory.toPath().resolve(artifact.getGroupId()).resolve(artifact.getArtifactId()).resolve(artifact.getVersion())
+                .resolve(ArchiveManifest.sha256(artifact.getFile()));
+    }
+
+    private Artifact artifact(String artifactId, String version, String library) throws IOException {
+        final File zip = new File(temporaryFolder.getRoot(), artifactId + "-" + version + ".zip");
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(zip.toPath()))) {
+            output.putNextEntry(new ZipEntry("types/library.raml"));
+            output.write(library.getBytes(StandardCharsets.UTF_8));
+            output.closeEntry();
+        }
+        final Artifact artifact = new DefaultArtifact("org.test", artifactId, version, Artifact.SCOPE_COMPILE, "zip", "raml", new DefaultArtifactHandler("zip"));
+        artifact.setFile(zip);
+        return artifact;
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
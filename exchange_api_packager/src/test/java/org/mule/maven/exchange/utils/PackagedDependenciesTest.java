@@ -0,0 +1,118 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange.utils;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.IOUtils;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class PackagedDependenciesTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final MavenProject project = new MavenProject(new Model());
+    private Artifact raml;
+    private Artifact oas;
+    private Artifact library;
+
+    @Before
+    public void setUp() throws IOException {
+        raml = artifact("org.test", "api", "1.0.0", "raml", Artifact.SCOPE_COMPILE, "zip",
+                "exchange.json", "{\"classifier\":\"raml\"}", "api.raml", "#%RAML 1.0");
+        library = artifact("68ef9520-24e9-4cf2-b2f5-620025690913", "library", "1.0.0-20230101.101010-1", "raml-fragment", Artifact.SCOPE_RUNTIME, "zip",
+                "exchange.json", "{}", "library.raml", "#%RAML 1.0 Library");
+        oas = artifact("org.test", "api", "1.0.0", "oas", Artifact.SCOPE_COMPILE, "zip",
+                "exchange.json", "{\"classifier\":\"oas\"}", "api.yaml", "openapi: 3.0.0");
+        project.setArtifacts(new LinkedHashSet<>(Arrays.asList(raml, library,
+                artifact("org.test", "validation", "1.0.0", "raml", Artifact.SCOPE_PROVIDED, "zip", "exchange.json", "{}"),
+                artifact("org.test", "plugin", "1.0.0", null, Artifact.SCOPE_COMPILE, "jar", "plugin.properties", ""),
+                oas)));
+    }
+
+    @Test
+    public void classifiersOfAnAssetShareItsFolder() {
+        final Map<String, List<Artifact>> folders = PackagedDependencies.byFolder(project);
+
+        assertEquals(Arrays.asList("exchange_modules/org.test/api/1.0.0", "exchange_modules/68ef9520-24e9-4cf2-b2f5-620025690913/library/1.0.0-SNAPSHOT"),
+                new ArrayList<>(folders.keySet()));
+        assertEquals(Arrays.asList(raml, oas), folders.get("exchange_modules/org.test/api/1.0.0"));
+        assertEquals(Collections.singletonList(library), folders.get("exchange_modules/68ef9520-24e9-4cf2-b2f5-620025690913/library/1.0.0-SNAPSHOT"));
+    }
+
+    @Test
+    public void streamedFoldersMatchTheExtractedOnes() throws IOException {
+        final Path extracted = temporaryFolder.newFolder("full_api").toPath();
+        final File streamed = temporaryFolder.newFile("fat.zip");
+        try (ZipArchiveOutputStream zip = new ZipArchiveOutputStream(streamed);
+             ParallelZipWriter writer = new ParallelZipWriter(2)) {
+            for (Map.Entry<String, List<Artifact>> folder : PackagedDependencies.byFolder(project).entrySet()) {
+                for (Artifact artifact : folder.getValue()) {
+                    Archives.extractConcurrently(artifact.getFile(), extracted.resolve(folder.getKey()).toFile());
+                }
+                writer.addRawEntries(folder.getKey(), folder.getValue().stream().map(Artifact::getFile).collect(Collectors.toList()),
+                        name -> true, true, null, zip);
+            }
+            writer.flush();
+        }
+
+        final Map<String, String> extractedFiles = new TreeMap<>();
+        for (Path file : Archives.listFiles(extracted.toFile(), pathname -> true)) {
+            extractedFiles.put(Archives.toEntryName(file), new String(Files.readAllBytes(extracted.resolve(file)), StandardCharsets.UTF_8));
+        }
+        final Map<String, String> streamedEntries = new TreeMap<>();
+        try (ZipFile zip = new ZipFile(streamed)) {
+            for (ZipArchiveEntry entry : Collections.list(zip.getEntries())) {
+                try (InputStream content = zip.getInputStream(entry)) {
+                    streamedEntries.put(entry.getName(), new String(IOUtils.toByteArray(content), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        assertEquals(extractedFiles, streamedEntries);
+        assertEquals("{\"classifier\":\"oas\"}", streamedEntries.get("exchange_modules/org.test/api/1.0.0/exchange.json"));
+    }
+
+    /**
+     * @param namesAndContents name and content of every entry of the artifact zip, one after the other
+     */
+    private Artifact artifact(String groupId, String artifactId, String version, String classifier, String scope, String type,
+                              String... namesAndContents) throws IOException {
+        final File file = temporaryFolder.newFile(String.join("-", groupId, artifactId, version, String.valueOf(classifier)) + "." + type);
+        try (ZipArchiveOutputStream zip = new ZipArchiveOutputStream(file)) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                CompressedEntry.deflate(namesAndContents[i], namesAndContents[i + 1].getBytes(StandardCharsets.UTF_8)).writeTo(zip, null);
+            }
+        }
+        final Artifact artifact = new DefaultArtifact(groupId, artifactId, version, scope, type, classifier, new DefaultArtifactHandler(type));
+        artifact.setFile(file);
+        return artifact;
+    }
+}
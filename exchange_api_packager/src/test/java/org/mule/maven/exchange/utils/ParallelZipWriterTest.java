@@ -0,0 +1,154 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange.utils;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ParallelZipWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void entriesBiggerThanThePendingBytesAreWrittenInOrder() throws IOException {
+        final Map<String, byte[]> contents = new LinkedHashMap<>();
+        for (int i = 0; i < 20; i++) {
+            contents.put("file" + i + ".txt", content(i * 100, i));
+        }
+
+        final File target = temporaryFolder.newFile("target.zip");
+        try (ZipArchiveOutputStream zip = new ZipArchiveOutputStream(target);
+             ParallelZipWriter writer = new ParallelZipWriter(4, null, CompressionPolicy.defaultPolicy(), 512)) {
+            for (Map.Entry<String, byte[]> entry : contents.entrySet()) {
+                writer.add(entry.getKey(), entry.getValue().length, entry::getValue, zip);
+            }
+            writer.flush();
+        }
+
+        assertEquals(contents.keySet(), readZip(target).keySet());
+        readZip(target).forEach((name, content) -> assertArrayEquals(name, contents.get(name), content));
+    }
+
+    @Test
+    public void bigEntriesOfOtherZipsAreStreamedIntoEveryArchive() throws IOException {
+        final Map<String, byte[]> contents = new LinkedHashMap<>();
+        contents.put("small.raml", content(1000, 1));
+        contents.put("big.bin", content((int) ParallelZipWriter.STREAMED_ENTRY_SIZE * 2, 2));
+        final File source = temporaryFolder.newFile("source.zip");
+        try (ZipArchiveOutputStream zip = new ZipArchiveOutputStream(source)) {
+            for (Map.Entry<String, byte[]> entry : contents.entrySet()) {
+                CompressedEntry.store(entry.getKey(), entry.getValue()).writeTo(zip, null);
+            }
+        }
+
+        final File target = temporaryFolder.newFile("target.zip");
+        final File tar = temporaryFolder.newFile("target.tar.zst");
+        final List<CompressedEntry> written = new ArrayList<>();
+        try (ZipArchiveOutputStream zip = new ZipArchiveOutputStream(target);
+             TarZstWriter tarWriter = new TarZstWriter(tar);
+             ParallelZipWriter writer = new ParallelZipWriter(2)) {
+            writer.setListener(written::add);
+            assertEquals(2, writer.addRawEntries("folder", Collections.singletonList(source), name -> true, false, tarWriter, zip));
+            writer.flush();
+            tarWriter.finish();
+        }
+
+        assertEquals(2, written.size());
+        assertEquals("folder/big.bin", written.get(1).getName());
+        assertEquals(contents.get("big.bin").length, written.get(1).getCompressedSize());
+        final Map<String, byte[]> zipContents = readZip(target);
+        assertEquals(2, zipContents.size());
+        contents.forEach((name, content) -> assertArrayEquals(name, content, zipContents.get("folder/" + name)));
+        final Map<String, byte[]> tarContents = readTar(tar);
+        contents.forEach((name, content) -> assertArrayEquals(name, content, tarContents.get("folder/" + name)));
+    }
+
+    @Test
+    public void entriesOfZipsSharingAFolderAreCopiedOnceFromTheLastZip() throws IOException {
+        final String folder = "exchange_modules/org.test/dep/1.0.0";
+        final File ramlZip = zip("dep-1.0.0-raml.zip", "exchange.json", "{\"classifier\":\"raml\"}", "api.raml", "#%RAML 1.0");
+        final File oasZip = zip("dep-1.0.0-oas.zip", "exchange.json", "{\"classifier\":\"oas\"}", "api.yaml", "openapi: 3.0.0");
+
+        final File target = temporaryFolder.newFile("target.zip");
+        try (ZipArchiveOutputStream zip = new ZipArchiveOutputStream(target);
+             ParallelZipWriter writer = new ParallelZipWriter(2)) {
+            assertEquals(3, writer.addRawEntries(folder, Arrays.asList(ramlZip, oasZip), name -> true, true, null, zip));
+            writer.flush();
+        }
+
+        final Map<String, byte[]> zipContents = readZip(target);
+        assertEquals(Arrays.asList(folder + "/api.raml", folder + "/api.yaml", folder + "/exchange.json"), new ArrayList<>(zipContents.keySet()));
+        assertEquals("{\"classifier\":\"oas\"}", new String(zipContents.get(folder + "/exchange.json"), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param namesAndContents name and content of every entry, one after the other
+     */
+    private File zip(String name, String... namesAndContents) throws IOException {
+        final File file = temporaryFolder.newFile(name);
+        try (ZipArchiveOutputStream zip = new ZipArchiveOutputStream(file)) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                CompressedEntry.deflate(namesAndContents[i], namesAndContents[i + 1].getBytes(StandardCharsets.UTF_8)).writeTo(zip, null);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * @return incompressible content, so that stored and deflated sizes are alike
+     */
+    private static byte[] content(int size, long seed) {
+        final byte[] content = new byte[size];
+        new Random(seed).nextBytes(content);
+        return content;
+    }
+
+    private static Map<String, byte[]> readZip(File file) throws IOException {
+        final Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipFile zip = new ZipFile(file)) {
+            for (ZipArchiveEntry entry : Collections.list(zip.getEntriesInPhysicalOrder())) {
+                try (InputStream content = zip.getInputStream(entry)) {
+                    entries.put(entry.getName(), IOUtils.toByteArray(content));
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static Map<String, byte[]> readTar(File file) throws IOException {
+        final Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (TarArchiveInputStream tar = new TarArchiveInputStream(new ZstdInputStream(Files.newInputStream(file.toPath())))) {
+            TarArchiveEntry entry;
+            while ((entry = tar.getNextTarEntry()) != null) {
+                entries.put(entry.getName(), IOUtils.toByteArray(tar));
+            }
+        }
+        return entries;
+    }
+}
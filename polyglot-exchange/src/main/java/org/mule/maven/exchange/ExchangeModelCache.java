@@ -0,0 +1,160 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.mule.maven.exchange.utils.ApiProjectConstants;
+import org.mule.maven.exchange.utils.AtomicFiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * On-disk cache of the Maven models generated from an exchange.json file. Entries live under
+ * {@link ApiProjectConstants#EXCHANGE_MODULES_TMP} (so they survive a {@code mvn clean}) and are keyed by a digest of
+ * every input that can change the generated model: the exchange.json content, the system properties read by
+ * {@link ExchangeModelProcessor}, the apivcs configuration and the packager version.
+ */
+class ExchangeModelCache {
+
+    private static final Logger LOGGER = Logger.getLogger(ExchangeModelCache.class.getName());
+
+    private static final String CACHE_DIRECTORY = "model_cache";
+    private static final String CACHE_EXTENSION = ".xml";
+
+    private static final AtomicInteger HITS = new AtomicInteger();
+    private static final AtomicInteger MISSES = new AtomicInteger();
+
+    private final File cacheDirectory;
+
+    ExchangeModelCache(File projectDirectory) {
+        this.cacheDirectory = new File(new File(projectDirectory, ApiProjectConstants.EXCHANGE_MODULES_TMP), CACHE_DIRECTORY);
+    }
+
+    /**
+     * @param exchangeJson content of the exchange.json file
+     * @param inputs       any other value that takes part in the generation of the model (system properties, versions, etc.)
+     * @return the key under which the generated model must be stored
+     */
+    static String key(byte[] exchangeJson, String... inputs) {
+        final MessageDigest digest = sha256();
+        digest.update(exchangeJson);
+        for (String input : inputs) {
+            // separator byte so that ("ab", "c") and ("a", "bc") never collide
+            digest.update((byte) 0);
+            if (input != null) {
+                digest.update(input.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * @return the model stored under {@code key}, or null if there's no usable entry for it. An entry that can't be
+     * read or parsed (a disk issue, a partial write of an older version, etc.) is dropped and counted as a miss.
+     */
+    CachedModel get(String key) {
+        final File entry = getEntry(key);
+        if (entry.isFile()) {
+            try {
+                final String xml = new String(Files.readAllBytes(entry.toPath()), StandardCharsets.UTF_8);
+                final Model model = new MavenXpp3Reader().read(new StringReader(xml));
+                HITS.incrementAndGet();
+                log("hit");
+                return new CachedModel(model, xml);
+            } catch (IOException | XmlPullParserException e) {
+                LOGGER.log(Level.FINE, String.format("Unable to read cached model [%s], regenerating it", entry.getAbsolutePath()), e);
+                delete(entry);
+            }
+        }
+        MISSES.incrementAndGet();
+        log("miss");
+        return null;
+    }
+
+    /**
+     * Stores the serialized model under {@code key}, dropping any previous entry of the same project. Failures are
+     * not fatal as the cache is only an optimization.
+     */
+    void put(String key, String xml) {
+        try {
+            Files.createDirectories(cacheDirectory.toPath());
+            final File entry = getEntry(key);
+            AtomicFiles.write(entry, xml.getBytes(StandardCharsets.UTF_8));
+            final File[] previous = cacheDirectory.listFiles((dir, name) -> name.endsWith(CACHE_EXTENSION) && !name.equals(entry.getName()));
+            if (previous != null) {
+                for (File file : previous) {
+                    Files.deleteIfExists(file.toPath());
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, String.format("Unable to store model in cache [%s]", cacheDirectory.getAbsolutePath()), e);
+        }
+    }
+
+    private static void delete(File entry) {
+        try {
+            Files.deleteIfExists(entry.toPath());
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, String.format("Unable to delete cached model [%s]", entry.getAbsolutePath()), e);
+        }
+    }
+
+    private File getEntry(String key) {
+        return new File(cacheDirectory, key + CACHE_EXTENSION);
+    }
+
+    private void log(String result) {
+        LOGGER.log(Level.INFO, String.format("exchange model cache %s for [%s] (hits: %d, misses: %d)",
+                result, cacheDirectory.getParentFile().getParent(), HITS.get(), MISSES.get()));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        final StringBuilder result = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return result.toString();
+    }
+
+    /**
+     * A cached model, along with the serialized form it was parsed from.
+     */
+    static final class CachedModel {
+
+        private final Model model;
+        private final String xml;
+
+        private CachedModel(Model model, String xml) {
+            this.model = model;
+            this.xml = xml;
+        }
+
+        Model getModel() {
+            return model;
+        }
+
+        String getXml() {
+            return xml;
+        }
+    }
+}
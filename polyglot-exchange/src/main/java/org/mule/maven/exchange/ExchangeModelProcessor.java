@@ -10,6 +10,7 @@ import org.apache.maven.model.Model;
 import org.apache.maven.model.Plugin;
 import org.apache.maven.model.PluginExecution;
 import org.apache.maven.model.Repository;
+import org.apache.maven.model.RepositoryPolicy;
 import org.apache.maven.model.building.FileModelSource;
 import org.apache.maven.model.building.ModelProcessor;
 import org.apache.maven.model.building.ModelSource2;
@@ -19,19 +20,27 @@ import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
 import org.apache.maven.model.locator.ModelLocator;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
-import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.StringUtils;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.mule.maven.exchange.model.ExchangeDependency;
 import org.mule.maven.exchange.model.ExchangeModel;
 import org.mule.maven.exchange.model.ExchangeModelSerializer;
+import org.mule.maven.exchange.model.StreamingExchangeModelSerializer;
 import org.mule.maven.exchange.utils.ApiProjectConstants;
+import org.mule.maven.exchange.utils.AtomicFiles;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -45,15 +54,36 @@ public class ExchangeModelProcessor implements ModelProcessor {
     public static final String RULESET = "ruleset";
     public static final String ZIP_PACKAGING = "zip";
     public static final String LIGHT_RULESET = "light-ruleset";
+    public static final String VALIDATION_SCOPE = "validation";
 
+    /**
+     * Exchange scopes translated to Maven scopes. Validation only dependencies (such as governance rulesets) are needed
+     * to validate the API but are not part of it, so they must not be extracted nor packaged within the fat API.
+     */
+    private static final Map<String, String> MAVEN_SCOPES;
+
+    static {
+        final Map<String, String> mavenScopes = new HashMap<>();
+        mavenScopes.put(VALIDATION_SCOPE, "provided");
+        mavenScopes.put("compile", "compile");
+        mavenScopes.put("runtime", "runtime");
+        mavenScopes.put("provided", "provided");
+        mavenScopes.put("test", "test");
+        MAVEN_SCOPES = Collections.unmodifiableMap(mavenScopes);
+    }
 
-    private static Logger LOGGER = Logger.getLogger(ExchangeModelProcessor.class.getName());
+
+    private static final Logger LOGGER = Logger.getLogger(ExchangeModelProcessor.class.getName());
 
     private static final String EXCHANGE_JSON = "exchange.json";
     private static final String TEMPORAL_EXCHANGE_XML = ".exchange.xml";
 
     public static final String PACKAGER_VERSION = "2.5.3";
 
+    public static final String GROUP_ID_PROPERTY = "groupId";
+
+    public static final String MAVEN_DEBUG_PROPERTY = "exchange.maven.debug";
+
     public static final String MAVEN_FACADE_SYSTEM_PROPERTY = "-Dexchange.maven.repository.url";
 
     public static final String MAVEN_FACADE_V2_SYSTEM_PROPERTY = "-Dexchange.maven.v2.repository.url";
@@ -64,8 +94,59 @@ public class ExchangeModelProcessor implements ModelProcessor {
      */
     public static final String MAVEN_USE_LIGHT_RULESETS_PROPERTY = "exchange.maven.dependencies.useLightRulesets";
 
+    /**
+     * Restores the legacy behaviour of writing back to the exchange.json file the defaults applied while generating the
+     * Maven model (assetId, version and groupId). By default they are only kept in memory.
+     */
+    public static final String MAVEN_WRITE_BACK_EXCHANGE_JSON_PROPERTY = "exchange.maven.exchangeJson.writeBack";
 
-    private ExchangeModelSerializer objectMapper = new ExchangeModelSerializer();
+    /**
+     * Serves the generated Maven model from memory instead of rewriting the temporal ".exchange.xml" file on every build.
+     * The file is created once and never deleted, its content is only written by the packager's `write-pom` goal right
+     * before the installation, so that {@code getPomFile()} keeps working for install and deploy.
+     */
+    public static final String MAVEN_IN_MEMORY_MODEL_PROPERTY = "exchange.maven.inMemoryModel";
+
+    /**
+     * Enables the routing of dependencies to repositories by groupId (see {@link RepositoryRouting}): artifacts are only
+     * requested from the declared repositories that may host them (see {@link RoutingRepositoryConnectorFactory}),
+     * instead of probing Exchange v3, Exchange v2 and MuleSoft releases in order.
+     */
+    public static final String MAVEN_REPOSITORY_ROUTING_PROPERTY = "exchange.maven.repositories.routing";
+
+    /**
+     * Custom routing rules, evaluated before the built-in ones, with the form
+     * {@code <groupId regex>=<repository id>[,<repository id>...]} separated by {@code ;}
+     */
+    public static final String MAVEN_REPOSITORY_ROUTING_RULES_PROPERTY = "exchange.maven.repositories.routing.rules";
+
+    /**
+     * Offline-first resolution: release artifacts already present in the local repository are never requested again
+     * from a remote repository (see {@link RoutingRepositoryConnectorFactory}).
+     */
+    public static final String MAVEN_OFFLINE_FIRST_PROPERTY = "exchange.maven.repositories.offlineFirst";
+
+    /**
+     * Builds the generated connector once, within the running Maven (`build-connector` goal of the packager), instead of
+     * forking a maven-invoker-plugin build for both install and deploy.
+     */
+    public static final String MAVEN_IN_PROCESS_CONNECTOR_BUILD_PROPERTY = "exchange.maven.restConnect.inProcess";
+
+    /**
+     * Records how long each stage of the processor takes per project, logging every measurement as a FINE event and
+     * printing a summary table at the end of the session (see {@link ExchangeModelTimings}).
+     */
+    public static final String MAVEN_TIMINGS_PROPERTY = "exchange.maven.timings";
+
+    /**
+     * Disables the on-disk cache of generated Maven models (see {@link ExchangeModelCache}).
+     */
+    public static final String MAVEN_DISABLE_MODEL_CACHE_PROPERTY = "exchange.maven.modelCache.disable";
+
+
+    private final ExchangeModelSerializer objectMapper = new StreamingExchangeModelSerializer();
+
+    private final ExchangeModelProcessorConfiguration processorConfiguration = ExchangeModelProcessorConfiguration.fromSystemProperties();
 
     @Requirement
     private ModelReader modelReader;
@@ -86,15 +167,19 @@ public class ExchangeModelProcessor implements ModelProcessor {
 
     @Override
     public File locatePom(File projectDirectory) {
+        final long start = System.nanoTime();
         File pomFile = new File(projectDirectory, EXCHANGE_JSON);
         if (pomFile.exists()) {
             pomFile = new File(pomFile.getParentFile(), TEMPORAL_EXCHANGE_XML);
             try {
-                pomFile.createNewFile();
-                pomFile.deleteOnExit();
+                // kept between builds, so that its modification time only changes when the generated model does
+                if (!pomFile.exists()) {
+                    pomFile.createNewFile();
+                }
             } catch (IOException e) {
                 throw new RuntimeException(String.format("error creating temporal `%s` empty file", TEMPORAL_EXCHANGE_XML), e);
             }
+            recordTiming(projectDirectory, ExchangeModelTimings.Stage.LOCATE_POM, start);
         } else {
             // behave like proper maven in case there is no pom from manager
             pomFile = modelLocator.locatePom(projectDirectory);
@@ -116,24 +201,49 @@ public class ExchangeModelProcessor implements ModelProcessor {
     public Model read(Reader reader, Map<String, ?> options) throws IOException, ModelParseException {
         Object source = (options != null) ? options.get(SOURCE) : null;
         if (source instanceof ModelSource2 && ((ModelSource2) source).getLocation().endsWith(TEMPORAL_EXCHANGE_XML)) {
+            final long start = System.nanoTime();
             // lookup the temporal file ".exchange.xml"
             final String temporalExchangeXml = ((ModelSource2) source).getLocation();
             final File temporaryExchangeXml = new File(temporalExchangeXml);
             final File exchangeJson = new File(temporaryExchangeXml.getParent(), EXCHANGE_JSON);
 
-            // retrieve the original "exchange.json" file and obtain the Maven model
+            // retrieve the original "exchange.json" file and obtain the Maven model, reusing a previous generation if nothing changed
             final String exchangeJsonLocation = exchangeJson.getAbsolutePath();
-            final FileInputStream exchangeJsonInputStream = new FileInputStream(exchangeJson);
-            final Model mavenModel = getModel(exchangeJsonLocation, exchangeJsonInputStream);
+            final byte[] exchangeJsonContent = Files.readAllBytes(exchangeJson.toPath());
+            final boolean useCache = !processorConfiguration.isModelCacheDisabled();
+            final ExchangeModelCache cache = new ExchangeModelCache(exchangeJson.getParentFile());
+            final String cacheKey = getCacheKey(exchangeJson, exchangeJsonContent);
+            final ExchangeModelCache.CachedModel cachedModel = useCache ? cache.get(cacheKey) : null;
+            final Model mavenModel;
+            final String data;
+            if (cachedModel != null) {
+                mavenModel = cachedModel.getModel();
+                data = cachedModel.getXml();
+            } else {
+                mavenModel = getModel(exchangeJsonLocation, new ByteArrayInputStream(exchangeJsonContent));
+                final long toXmlStringStart = System.nanoTime();
+                data = toXmlString(mavenModel);
+                recordTiming(exchangeJson.getParentFile(), ExchangeModelTimings.Stage.TO_XML_STRING, toXmlStringStart);
+                if (useCache) {
+                    cache.put(cacheKey, data);
+                }
+            }
 
             // store the reference from the original source of truth, the "exchange.json" file
-            final FileModelSource temporalSourceXml = new FileModelSource(exchangeJson);
-            ((Map) options).put(ModelProcessor.SOURCE, temporalSourceXml);
-
-            // serialize the Maven model as XML in the temporal ".exchange.xml" file for proper installation of the .pom
-            final String data = toXmlString(mavenModel);
-            FileUtils.fileWrite(temporaryExchangeXml, data);
+            final byte[] xml = data.getBytes(StandardCharsets.UTF_8);
+            if (processorConfiguration.isInMemoryModel()) {
+                // served from memory, the packager writes the ".exchange.xml" file right before installing (see `write-pom` goal)
+                ((Map) options).put(ModelProcessor.SOURCE, new ExchangeModelSource(exchangeJson, xml));
+            } else {
+                ((Map) options).put(ModelProcessor.SOURCE, new FileModelSource(exchangeJson));
+                // serialize the Maven model as XML in the temporal ".exchange.xml" file for proper installation of the .pom
+                AtomicFiles.writeIfChanged(temporaryExchangeXml, xml);
+            }
             mavenModel.setPomFile(temporaryExchangeXml);
+            if (processorConfiguration.isTimings()) {
+                ExchangeModelTimings.sizes(exchangeJson.getParentFile(), exchangeJsonContent.length, xml.length);
+                recordTiming(exchangeJson.getParentFile(), ExchangeModelTimings.Stage.READ, start);
+            }
 
             // done =]
             return mavenModel;
@@ -158,7 +268,72 @@ public class ExchangeModelProcessor implements ModelProcessor {
         return exchangeModelProcessor.toXmlString(mavenModel);
     }
 
+    /**
+     * Batch version of {@link #toPomXml(File)} that converts every exchange.json file in parallel, using as many
+     * threads as available processors.
+     *
+     * @param exchangeJsons exchange.json files to convert
+     * @return one result per distinct file, in the same order they were provided
+     * @throws IOException if the conversion gets interrupted
+     */
+    public static List<PomXmlResult> toPomXml(Collection<File> exchangeJsons) throws IOException {
+        return toPomXml(exchangeJsons, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Batch version of {@link #toPomXml(File)} that converts every exchange.json file on a fork-join pool bounded to
+     * {@code parallelism} threads, sharing a single processor (and serializer) between all of them. A failure in one
+     * file doesn't stop the rest, it's reported in its own {@link PomXmlResult}.
+     *
+     * @param exchangeJsons exchange.json files to convert
+     * @param parallelism   maximum number of threads used for the conversion
+     * @return one result per distinct file, in the same order they were provided
+     * @throws IOException if the conversion gets interrupted
+     */
+    public static List<PomXmlResult> toPomXml(Collection<File> exchangeJsons, int parallelism) throws IOException {
+        final ExchangeModelProcessor exchangeModelProcessor = new ExchangeModelProcessor();
+        final ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            return pool.submit(() -> exchangeJsons.parallelStream()
+                    .distinct()
+                    .map(exchangeModelProcessor::toPomXmlResult)
+                    .collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while converting exchange.json files");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unexpected error while converting exchange.json files", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private PomXmlResult toPomXmlResult(File exchangeJson) {
+        try (FileInputStream exchangeJsonInputStream = new FileInputStream(exchangeJson)) {
+            final Model mavenModel = getModel(exchangeJson.getAbsolutePath(), exchangeJsonInputStream);
+            final long start = System.nanoTime();
+            final String pomXml = toXmlString(mavenModel);
+            recordTiming(exchangeJson.getParentFile(), ExchangeModelTimings.Stage.TO_XML_STRING, start);
+            return PomXmlResult.success(exchangeJson, pomXml);
+        } catch (IOException | RuntimeException e) {
+            return PomXmlResult.failure(exchangeJson, e);
+        }
+    }
+
+    /**
+     * @return a key for {@link ExchangeModelCache} that covers every input used while generating the Maven model
+     */
+    private String getCacheKey(File exchangeJson, byte[] exchangeJsonContent) throws IOException {
+        final File apiVcsConfigFile = new File(new File(exchangeJson.getParentFile(), ".apivcs"), "config.properties");
+        final String apiVcsConfig = apiVcsConfigFile.isFile() ? new String(Files.readAllBytes(apiVcsConfigFile.toPath()), StandardCharsets.UTF_8) : null;
+        final List<String> inputs = Lists.newArrayList(PACKAGER_VERSION, apiVcsConfig);
+        inputs.addAll(Arrays.asList(processorConfiguration.getModelInputs()));
+        return ExchangeModelCache.key(exchangeJsonContent, inputs.toArray(new String[0]));
+    }
+
     private Model getModel(String location, InputStream inputStream) throws IOException {
+        final long start = System.nanoTime();
+        final File projectDirectory = new File(location).getParentFile();
         final ExchangeModel model = objectMapper.read(inputStream);
 
         boolean modified = false;
@@ -171,7 +346,9 @@ public class ExchangeModelProcessor implements ModelProcessor {
             modified = true;
         }
         if (StringUtils.isBlank(model.getGroupId())) {
+            final long guessOrgIdStart = System.nanoTime();
             final String orgId = guessOrgId(location);
+            recordTiming(projectDirectory, ExchangeModelTimings.Stage.GUESS_ORG_ID, guessOrgIdStart);
             if (orgId != null) {
                 model.setGroupId(orgId);
                 modified = true;
@@ -181,19 +358,33 @@ public class ExchangeModelProcessor implements ModelProcessor {
         }
 
         if (modified) {
-            LOGGER.log(Level.WARNING, "[WARNING] exchange.json was modified by the build.");
-            objectMapper.write(model, new File(location));
+            if (processorConfiguration.isWriteBackExchangeJson()) {
+                LOGGER.log(Level.WARNING, "[WARNING] exchange.json was modified by the build.");
+                final ByteArrayOutputStream output = new ByteArrayOutputStream();
+                objectMapper.write(model, output);
+                AtomicFiles.write(new File(location), output.toByteArray());
+            } else {
+                LOGGER.log(Level.INFO, String.format("[INFO] exchange.json defaults were applied in memory, to store them in the file parameterize '-D%s=true'",
+                        MAVEN_WRITE_BACK_EXCHANGE_JSON_PROPERTY));
+            }
         }
 
+        final long toMavenModelStart = System.nanoTime();
         final Model mavenModel = toMavenModel(model);
-        if (Boolean.getBoolean("exchange.maven.debug")) {
+        recordTiming(projectDirectory, ExchangeModelTimings.Stage.TO_MAVEN_MODEL, toMavenModelStart);
+        if (processorConfiguration.isDebug()) {
             System.out.println("Maven Model \n" + toXmlString(mavenModel));
         }
+        if (processorConfiguration.isTimings()) {
+            ExchangeModelTimings.describe(projectDirectory, String.format("%s:%s:%s", model.getGroupId(), model.getAssetId(), model.getVersion()),
+                    model.getDependencies().size());
+            recordTiming(projectDirectory, ExchangeModelTimings.Stage.GET_MODEL, start);
+        }
         return mavenModel;
     }
 
     private String guessOrgId(String location) {
-        String groupId = System.getProperty("groupId");
+        String groupId = processorConfiguration.getGroupId();
         if (groupId == null) {
             final File projectFolder = new File(location).getParentFile();
             final File apiVcsConfigFile = new File(new File(projectFolder, ".apivcs"), "config.properties");
@@ -211,6 +402,12 @@ public class ExchangeModelProcessor implements ModelProcessor {
         return groupId;
     }
 
+    private void recordTiming(File projectDirectory, ExchangeModelTimings.Stage stage, long startNanos) {
+        if (processorConfiguration.isTimings()) {
+            ExchangeModelTimings.record(projectDirectory, stage, startNanos);
+        }
+    }
+
     public String toXmlString(Model mavenModel) throws IOException {
         StringWriter stringWriter = new StringWriter();
         new MavenXpp3Writer().write(stringWriter, mavenModel);
@@ -224,14 +421,14 @@ public class ExchangeModelProcessor implements ModelProcessor {
         result.setGroupId(model.getGroupId());
         result.setName(model.getName());
         result.setVersion(model.getVersion());
-        result.setRepositories(Lists.newArrayList(createExchangeV3Repository(), createExchangeV2Repository(), createMulesoftReleasesRepository()));
+        result.setRepositories(createRepositories());
         final List<Dependency> dependencies = model.getDependencies().stream().map(this::toMavenDependency).collect(Collectors.toList());
         result.setDependencies(dependencies);
         final Build build = new Build();
         build.setDirectory(String.format("${project.basedir}/%s/target", ApiProjectConstants.EXCHANGE_MODULES_TMP));
         build.setSourceDirectory("${project.basedir}");
         build.addPlugin(createPackagerPlugin(model));
-        if (!model.getClassifier().equals(RAML_FRAGMENT)) {
+        if (!model.getClassifier().equals(RAML_FRAGMENT) && !processorConfiguration.isInProcessConnectorBuild()) {
             build.addPlugin(createConnectorInvokerPlugin("install"));
             build.addPlugin(createConnectorInvokerPlugin("deploy"));
         }
@@ -250,7 +447,7 @@ public class ExchangeModelProcessor implements ModelProcessor {
         addSimpleNodeTo("pom", String.format("${project.basedir}/%s/target/%s/pom.xml",
                 ApiProjectConstants.EXCHANGE_MODULES_TMP,
                 ApiProjectConstants.REST_CONNECT_OUTPUTDIR), configuration);
-        boolean skipInvoker = Boolean.getBoolean(ApiProjectConstants.MAVEN_SKIP_REST_CONNECT);
+        boolean skipInvoker = processorConfiguration.isSkipRestConnect();
         addSimpleNodeTo("skipInvocation", Boolean.toString(skipInvoker), configuration);
 
         // make the connector build a little bit faster by skipping docs and extension model generation
@@ -309,6 +506,31 @@ public class ExchangeModelProcessor implements ModelProcessor {
         packagePhase.addGoal("package-api");
         packagePhase.addGoal("rest-connect");
         result.addExecution(packagePhase);
+
+        if (!model.getClassifier().equals(RAML_FRAGMENT) && processorConfiguration.isInProcessConnectorBuild()) {
+            result.addExecution(createConnectorBuildExecution("install", false));
+            result.addExecution(createConnectorBuildExecution("deploy", true));
+        }
+
+        if (processorConfiguration.isInMemoryModel()) {
+            // last phase before the installation, as executions of the packaging run first within the same phase
+            PluginExecution writePom = new PluginExecution();
+            writePom.setId("write-pom");
+            writePom.setPhase("verify");
+            writePom.addGoal("write-pom");
+            result.addExecution(writePom);
+        }
+        return result;
+    }
+
+    private PluginExecution createConnectorBuildExecution(String phase, boolean deploy) {
+        PluginExecution result = new PluginExecution();
+        result.setId("build-connector-" + phase);
+        result.setPhase(phase);
+        result.addGoal("build-connector");
+        final Xpp3Dom configuration = new Xpp3Dom("configuration");
+        addSimpleNodeTo("deploy", Boolean.toString(deploy), configuration);
+        result.setConfiguration(configuration);
         return result;
     }
 
@@ -319,15 +541,25 @@ public class ExchangeModelProcessor implements ModelProcessor {
         result.setVersion(dep.getVersion());
         setOrDefault(dep.getPackaging(), ZIP_PACKAGING, result::setType);
         setOrDefault(dep.getClassifier(), null, this.setDependencyClassifier(result, result.getType()));
+        setOrDefault(dep.getScope(), null, scope -> result.setScope(toMavenScope(dep, scope)));
         return result;
     }
 
+    private String toMavenScope(ExchangeDependency dep, String scope) {
+        final String mavenScope = MAVEN_SCOPES.get(scope.toLowerCase());
+        if (mavenScope == null) {
+            LOGGER.log(Level.WARNING, String.format("[WARNING] Unknown scope `%s` for dependency %s:%s:%s, using the default one",
+                    scope, dep.getGroupId(), dep.getAssetId(), dep.getVersion()));
+        }
+        return mavenScope;
+    }
+
     private Consumer<String> setDependencyClassifier(Dependency dependency, String packaging) {
         return (String classifier) -> dependency.setClassifier(this.transformClassifier(classifier, packaging));
     }
 
     private String transformClassifier(String classifier, String packaging) {
-        if (useLightRulesetsEnabled() && classifier.equalsIgnoreCase(RULESET) && packaging.equalsIgnoreCase(ZIP_PACKAGING)) {
+        if (processorConfiguration.isUseLightRulesets() && classifier.equalsIgnoreCase(RULESET) && packaging.equalsIgnoreCase(ZIP_PACKAGING)) {
             return LIGHT_RULESET;
         }
 
@@ -340,10 +572,16 @@ public class ExchangeModelProcessor implements ModelProcessor {
         else if (fallback != null) fn.accept(fallback);
     }
 
+    private List<Repository> createRepositories() {
+        // every repository is declared even with routing, as transitive dependencies may come from any of them. The
+        // routing happens while resolving (see RoutingRepositoryConnectorFactory)
+        return Lists.newArrayList(createExchangeV3Repository(), createExchangeV2Repository(), createMulesoftReleasesRepository());
+    }
+
     private Repository createExchangeV3Repository() {
-        String url = System.getProperty(MAVEN_FACADE_SYSTEM_PROPERTY, "https://maven.anypoint.mulesoft.com/api/v3/maven");
+        String url = processorConfiguration.getExchangeV3RepositoryUrl();
         Repository repository = new Repository();
-        repository.setId("anypoint-exchange-v3");
+        repository.setId(RepositoryRouting.EXCHANGE_V3_REPOSITORY_ID);
         repository.setName("Anypoint Exchange");
         repository.setUrl(url);
         repository.setLayout("default");
@@ -351,9 +589,9 @@ public class ExchangeModelProcessor implements ModelProcessor {
     }
 
     private Repository createExchangeV2Repository() {
-        String url = System.getProperty(MAVEN_FACADE_V2_SYSTEM_PROPERTY, "https://maven.anypoint.mulesoft.com/api/v2/maven");
+        String url = processorConfiguration.getExchangeV2RepositoryUrl();
         Repository repository = new Repository();
-        repository.setId("anypoint-exchange-v2");
+        repository.setId(RepositoryRouting.EXCHANGE_V2_REPOSITORY_ID);
         repository.setName("Anypoint Exchange V2");
         repository.setUrl(url);
         repository.setLayout("default");
@@ -362,15 +600,17 @@ public class ExchangeModelProcessor implements ModelProcessor {
 
     private Repository createMulesoftReleasesRepository() {
         Repository repository = new Repository();
-        repository.setId("mulesoft-releases");
+        repository.setId(RepositoryRouting.MULESOFT_RELEASES_REPOSITORY_ID);
         repository.setName("Nexus Repository");
         repository.setUrl("https://repository-master.mulesoft.org/nexus/content/repositories/releases/");
         repository.setLayout("default");
+        if (processorConfiguration.isRepositoryRoutingEnabled()) {
+            // it's a releases only repository, there is no point in looking for SNAPSHOTs in there
+            final RepositoryPolicy snapshots = new RepositoryPolicy();
+            snapshots.setEnabled(false);
+            repository.setSnapshots(snapshots);
+        }
         return repository;
     }
 
-    private static boolean useLightRulesetsEnabled() {
-        return Boolean.parseBoolean(System.getProperty(MAVEN_USE_LIGHT_RULESETS_PROPERTY, "false"));
-    }
-
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange;
+
+import org.mule.maven.exchange.utils.ApiProjectConstants;
+
+import java.util.Properties;
+
+import static org.mule.maven.exchange.ExchangeModelProcessor.*;
+
+/**
+ * Immutable snapshot of the system properties that drive the generation of the Maven model. It's resolved once, when
+ * the {@link ExchangeModelProcessor} is created, and shared by every project read afterwards so that parallel builds
+ * ({@code mvn -T}) see a consistent configuration.
+ */
+final class ExchangeModelProcessorConfiguration {
+
+    private static final String DEFAULT_EXCHANGE_V3_REPOSITORY_URL = "https://maven.anypoint.mulesoft.com/api/v3/maven";
+    private static final String DEFAULT_EXCHANGE_V2_REPOSITORY_URL = "https://maven.anypoint.mulesoft.com/api/v2/maven";
+
+    private final String groupId;
+    private final String exchangeV3RepositoryUrl;
+    private final String exchangeV2RepositoryUrl;
+    private final boolean useLightRulesets;
+    private final boolean skipRestConnect;
+    private final boolean debug;
+    private final boolean writeBackExchangeJson;
+    private final boolean inMemoryModel;
+    private final boolean modelCacheDisabled;
+    private final boolean repositoryRoutingEnabled;
+    private final boolean inProcessConnectorBuild;
+    private final boolean timings;
+
+    private ExchangeModelProcessorConfiguration(Properties properties) {
+        this.groupId = properties.getProperty(GROUP_ID_PROPERTY);
+        this.exchangeV3RepositoryUrl = properties.getProperty(MAVEN_FACADE_SYSTEM_PROPERTY, DEFAULT_EXCHANGE_V3_REPOSITORY_URL);
+        this.exchangeV2RepositoryUrl = properties.getProperty(MAVEN_FACADE_V2_SYSTEM_PROPERTY, DEFAULT_EXCHANGE_V2_REPOSITORY_URL);
+        this.useLightRulesets = Boolean.parseBoolean(properties.getProperty(MAVEN_USE_LIGHT_RULESETS_PROPERTY, "false"));
+        this.skipRestConnect = Boolean.parseBoolean(properties.getProperty(ApiProjectConstants.MAVEN_SKIP_REST_CONNECT));
+        this.debug = Boolean.parseBoolean(properties.getProperty(MAVEN_DEBUG_PROPERTY));
+        this.writeBackExchangeJson = Boolean.parseBoolean(properties.getProperty(MAVEN_WRITE_BACK_EXCHANGE_JSON_PROPERTY));
+        this.inMemoryModel = Boolean.parseBoolean(properties.getProperty(MAVEN_IN_MEMORY_MODEL_PROPERTY));
+        this.modelCacheDisabled = Boolean.parseBoolean(properties.getProperty(MAVEN_DISABLE_MODEL_CACHE_PROPERTY));
+        this.repositoryRoutingEnabled = Boolean.parseBoolean(properties.getProperty(MAVEN_REPOSITORY_ROUTING_PROPERTY));
+        this.inProcessConnectorBuild = Boolean.parseBoolean(properties.getProperty(MAVEN_IN_PROCESS_CONNECTOR_BUILD_PROPERTY));
+        this.timings = Boolean.parseBoolean(properties.getProperty(MAVEN_TIMINGS_PROPERTY));
+    }
+
+    static ExchangeModelProcessorConfiguration fromSystemProperties() {
+        // copy first, so that a concurrent System.setProperty can't be seen half way through
+        final Properties properties = new Properties();
+        properties.putAll(System.getProperties());
+        return new ExchangeModelProcessorConfiguration(properties);
+    }
+
+    /**
+     * @return the value of the `groupId` system property, or null if it's absent
+     */
+    String getGroupId() {
+        return groupId;
+    }
+
+    String getExchangeV3RepositoryUrl() {
+        return exchangeV3RepositoryUrl;
+    }
+
+    String getExchangeV2RepositoryUrl() {
+        return exchangeV2RepositoryUrl;
+    }
+
+    boolean isUseLightRulesets() {
+        return useLightRulesets;
+    }
+
+    boolean isSkipRestConnect() {
+        return skipRestConnect;
+    }
+
+    boolean isDebug() {
+        return debug;
+    }
+
+    boolean isWriteBackExchangeJson() {
+        return writeBackExchangeJson;
+    }
+
+    boolean isInMemoryModel() {
+        return inMemoryModel;
+    }
+
+    boolean isModelCacheDisabled() {
+        return modelCacheDisabled;
+    }
+
+    boolean isRepositoryRoutingEnabled() {
+        return repositoryRoutingEnabled;
+    }
+
+    boolean isInProcessConnectorBuild() {
+        return inProcessConnectorBuild;
+    }
+
+    boolean isTimings() {
+        return timings;
+    }
+
+    /**
+     * @return every value that changes the generated Maven model, to be part of the {@link ExchangeModelCache} key
+     */
+    String[] getModelInputs() {
+        return new String[]{
+                groupId,
+                exchangeV3RepositoryUrl,
+                exchangeV2RepositoryUrl,
+                Boolean.toString(useLightRulesets),
+                Boolean.toString(skipRestConnect),
+                Boolean.toString(inMemoryModel),
+                Boolean.toString(repositoryRoutingEnabled),
+                Boolean.toString(inProcessConnectorBuild)
+        };
+    }
+}
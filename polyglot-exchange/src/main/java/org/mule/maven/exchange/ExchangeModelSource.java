@@ -0,0 +1,53 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange;
+
+import org.apache.maven.model.building.FileModelSource;
+import org.apache.maven.model.building.ModelSource2;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.net.URI;
+
+/**
+ * {@link ModelSource2} that serves the Maven model generated from an exchange.json file straight from memory, while
+ * still pointing to the exchange.json file as the origin of the model (so related sources, like parents, are resolved
+ * relative to the project directory).
+ */
+class ExchangeModelSource implements ModelSource2 {
+
+    private final File exchangeJson;
+    private final byte[] model;
+
+    ExchangeModelSource(File exchangeJson, byte[] model) {
+        this.exchangeJson = exchangeJson;
+        this.model = model;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new ByteArrayInputStream(model);
+    }
+
+    @Override
+    public String getLocation() {
+        return exchangeJson.getPath();
+    }
+
+    @Override
+    public ModelSource2 getRelatedSource(String relPath) {
+        return new FileModelSource(exchangeJson).getRelatedSource(relPath);
+    }
+
+    @Override
+    public URI getLocationURI() {
+        return exchangeJson.toURI();
+    }
+
+    @Override
+    public String toString() {
+        return getLocation();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Collects how long every stage of the {@link ExchangeModelProcessor} takes per project, when enabled through
+ * {@link ExchangeModelProcessor#MAVEN_TIMINGS_PROPERTY}. Each measurement is logged as a FINE event with the project
+ * coordinates, dependency count and sizes, and {@link ExchangeModelTimingsReporter} prints the summary table at the end
+ * of the session. Stages are nested ({@code read} contains {@code getModel}, which contains the rest), and a stage that
+ * didn't run (e.g. {@code getModel} on a cache hit) is shown as `-`.
+ */
+final class ExchangeModelTimings {
+
+    private static final Logger LOGGER = Logger.getLogger(ExchangeModelTimings.class.getName());
+
+    enum Stage {
+        LOCATE_POM("locatePom"),
+        READ("read"),
+        GET_MODEL("getModel"),
+        GUESS_ORG_ID("guessOrgId"),
+        TO_MAVEN_MODEL("toMavenModel"),
+        TO_XML_STRING("toXmlString");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final ConcurrentMap<String, ProjectTimings> PROJECTS = new ConcurrentHashMap<>();
+
+    private ExchangeModelTimings() {
+    }
+
+    /**
+     * Adds the time elapsed since {@code startNanos} (taken from {@link System#nanoTime()}) to the {@code stage} of
+     * the project.
+     */
+    static void record(File projectDirectory, Stage stage, long startNanos) {
+        final long elapsed = System.nanoTime() - startNanos;
+        final ProjectTimings timings = getProject(projectDirectory);
+        timings.nanos.addAndGet(stage.ordinal(), elapsed);
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, String.format("exchange model stage [%s] for [%s] (%s, dependencies: %d, exchange.json: %d bytes, pom: %d bytes) took %d ms",
+                    stage.label, projectDirectory.getAbsolutePath(), timings.coordinates, timings.dependencies, timings.exchangeJsonBytes, timings.pomBytes,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed)));
+        }
+    }
+
+    static void describe(File projectDirectory, String coordinates, int dependencies) {
+        final ProjectTimings timings = getProject(projectDirectory);
+        timings.coordinates = coordinates;
+        timings.dependencies = dependencies;
+    }
+
+    static void sizes(File projectDirectory, long exchangeJsonBytes, long pomBytes) {
+        final ProjectTimings timings = getProject(projectDirectory);
+        timings.exchangeJsonBytes = exchangeJsonBytes;
+        timings.pomBytes = pomBytes;
+    }
+
+    static boolean isEmpty() {
+        return PROJECTS.isEmpty();
+    }
+
+    static void reset() {
+        PROJECTS.clear();
+    }
+
+    /**
+     * @return a table with one row per project, slowest first, and the time in milliseconds spent in each stage
+     */
+    static String summary() {
+        final List<ProjectTimings> projects = new ArrayList<>(PROJECTS.values());
+        projects.sort(Comparator.comparingLong(ProjectTimings::total).reversed());
+
+        final StringBuilder result = new StringBuilder("exchange model timings (ms)\n");
+        result.append(String.format("%-60s %5s %10s %10s", "project", "deps", "json(B)", "pom(B)"));
+        for (Stage stage : Stage.values()) {
+            result.append(String.format(" %12s", stage.label));
+        }
+        result.append(String.format(" %10s%n", "total"));
+        for (ProjectTimings project : projects) {
+            result.append(String.format("%-60s %5d %10d %10d", project.getName(), project.dependencies, project.exchangeJsonBytes, project.pomBytes));
+            for (Stage stage : Stage.values()) {
+                final long nanos = project.nanos.get(stage.ordinal());
+                result.append(String.format(" %12s", nanos == 0 ? "-" : Long.toString(TimeUnit.NANOSECONDS.toMillis(nanos))));
+            }
+            result.append(String.format(" %10d%n", TimeUnit.NANOSECONDS.toMillis(project.total())));
+        }
+        return result.toString();
+    }
+
+    private static ProjectTimings getProject(File projectDirectory) {
+        return PROJECTS.computeIfAbsent(projectDirectory.getAbsolutePath(), ProjectTimings::new);
+    }
+
+    private static final class ProjectTimings {
+
+        private final String directory;
+        private final AtomicLongArray nanos = new AtomicLongArray(Stage.values().length);
+        private volatile String coordinates;
+        private volatile int dependencies;
+        private volatile long exchangeJsonBytes;
+        private volatile long pomBytes;
+
+        private ProjectTimings(String directory) {
+            this.directory = directory;
+        }
+
+        private String getName() {
+            return coordinates != null ? coordinates : directory;
+        }
+
+        /**
+         * @return time spent in the outermost stages, as the rest are contained in them
+         */
+        private long total() {
+            return nanos.get(Stage.LOCATE_POM.ordinal()) + nanos.get(Stage.READ.ordinal());
+        }
+    }
+}
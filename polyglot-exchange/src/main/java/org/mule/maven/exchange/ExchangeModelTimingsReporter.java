@@ -0,0 +1,39 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange;
+
+import org.apache.maven.AbstractMavenLifecycleParticipant;
+import org.apache.maven.execution.MavenSession;
+import org.codehaus.plexus.component.annotations.Component;
+import org.mule.maven.exchange.utils.ApiProjectConstants;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Prints the summary of {@link ExchangeModelTimings} once the session ends, only if something was recorded (i.e.
+ * {@link ExchangeModelProcessor#MAVEN_TIMINGS_PROPERTY} is enabled and at least one exchange.json project was read).
+ * Sessions nested within the running build (e.g. the connector built in-process) end before it, so they are ignored
+ * and the summary covers the whole build.
+ */
+@Component(role = AbstractMavenLifecycleParticipant.class, hint = "exchange-model-timings")
+public class ExchangeModelTimingsReporter extends AbstractMavenLifecycleParticipant {
+
+    private static final Logger LOGGER = Logger.getLogger(ExchangeModelTimingsReporter.class.getName());
+
+    @Override
+    public void afterSessionEnd(MavenSession session) {
+        if (isNested(session)) {
+            return;
+        }
+        if (!ExchangeModelTimings.isEmpty()) {
+            LOGGER.log(Level.INFO, "[INFO] " + ExchangeModelTimings.summary());
+            ExchangeModelTimings.reset();
+        }
+    }
+
+    private static boolean isNested(MavenSession session) {
+        return Boolean.parseBoolean(session.getUserProperties().getProperty(ApiProjectConstants.MAVEN_NESTED_BUILD));
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange;
+
+import java.io.File;
+
+/**
+ * Outcome of converting a single exchange.json file into a pom.xml, see {@link ExchangeModelProcessor#toPomXml(java.util.Collection, int)}
+ */
+public class PomXmlResult {
+
+    private final File exchangeJson;
+    private final String pomXml;
+    private final Exception error;
+
+    private PomXmlResult(File exchangeJson, String pomXml, Exception error) {
+        this.exchangeJson = exchangeJson;
+        this.pomXml = pomXml;
+        this.error = error;
+    }
+
+    static PomXmlResult success(File exchangeJson, String pomXml) {
+        return new PomXmlResult(exchangeJson, pomXml, null);
+    }
+
+    static PomXmlResult failure(File exchangeJson, Exception error) {
+        return new PomXmlResult(exchangeJson, null, error);
+    }
+
+    public File getExchangeJson() {
+        return exchangeJson;
+    }
+
+    /**
+     * @return the generated pom.xml content, or null if the conversion failed
+     */
+    public String getPomXml() {
+        return pomXml;
+    }
+
+    /**
+     * @return the reason why the conversion failed, or null if it succeeded
+     */
+    public Exception getError() {
+        return error;
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return "PomXmlResult{" +
+                "exchangeJson=" + exchangeJson +
+                ", successful=" + isSuccessful() +
+                ", error=" + error +
+                '}';
+    }
+}
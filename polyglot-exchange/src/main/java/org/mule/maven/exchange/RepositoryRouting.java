@@ -0,0 +1,110 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Decides which remote repositories can host the artifacts of a given groupId, so that the resolver doesn't probe
+ * repositories that can't have them (each declared repository is probed, in order, for every missing or SNAPSHOT
+ * artifact). See {@link RoutingRepositoryConnectorFactory}.
+ * <p>
+ * Rules are evaluated in order and the first one whose pattern matches the whole groupId wins. Custom rules have the
+ * form {@code <groupId regex>=<repository id>[,<repository id>...]}, separated by {@code ;}, and are evaluated before
+ * the built-in ones: organization ids (UUIDs) are only published in Exchange v3, anything else may come from any of
+ * the known repositories.
+ */
+final class RepositoryRouting {
+
+    static final String EXCHANGE_V3_REPOSITORY_ID = "anypoint-exchange-v3";
+    static final String EXCHANGE_V2_REPOSITORY_ID = "anypoint-exchange-v2";
+    static final String MULESOFT_RELEASES_REPOSITORY_ID = "mulesoft-releases";
+
+    private static final String ORGANIZATION_ID_REGEX = "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}";
+
+    private static final List<Rule> DEFAULT_RULES = Collections.unmodifiableList(Arrays.asList(
+            new Rule(Pattern.compile(ORGANIZATION_ID_REGEX), Collections.singletonList(EXCHANGE_V3_REPOSITORY_ID)),
+            new Rule(Pattern.compile(".*"), Arrays.asList(EXCHANGE_V3_REPOSITORY_ID, EXCHANGE_V2_REPOSITORY_ID, MULESOFT_RELEASES_REPOSITORY_ID))
+    ));
+
+    private final List<Rule> rules;
+
+    private RepositoryRouting(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * @param customRules rules to evaluate before the built-in ones, may be null or empty
+     * @throws IllegalArgumentException if the rules are malformed
+     */
+    static RepositoryRouting create(String customRules) {
+        final List<Rule> rules = new ArrayList<>();
+        if (customRules != null) {
+            for (String rule : customRules.split(";")) {
+                if (!rule.trim().isEmpty()) {
+                    rules.add(parseRule(rule.trim()));
+                }
+            }
+        }
+        rules.addAll(DEFAULT_RULES);
+        return new RepositoryRouting(Collections.unmodifiableList(rules));
+    }
+
+    /**
+     * @return the ids of the repositories that may host artifacts of {@code groupId}
+     */
+    List<String> route(String groupId) {
+        for (Rule rule : rules) {
+            if (rule.pattern.matcher(groupId == null ? "" : groupId).matches()) {
+                return rule.repositoryIds;
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * @return true if some rule names the repository, false if the routing doesn't apply to it (e.g. a mirror or a
+     * repository declared in the settings) and it must get every request
+     */
+    boolean isRouted(String repositoryId) {
+        for (Rule rule : rules) {
+            if (rule.repositoryIds.contains(repositoryId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Rule parseRule(String rule) {
+        final int separator = rule.lastIndexOf('=');
+        if (separator <= 0 || separator == rule.length() - 1) {
+            throw new IllegalArgumentException(String.format("Invalid repository routing rule `%s`, expected `<groupId regex>=<repository id>[,<repository id>...]`", rule));
+        }
+        try {
+            final List<String> repositoryIds = new ArrayList<>();
+            for (String repositoryId : rule.substring(separator + 1).split(",")) {
+                repositoryIds.add(repositoryId.trim());
+            }
+            return new Rule(Pattern.compile(rule.substring(0, separator).trim()), Collections.unmodifiableList(repositoryIds));
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException(String.format("Invalid groupId regex in repository routing rule `%s`", rule), e);
+        }
+    }
+
+    private static final class Rule {
+
+        private final Pattern pattern;
+        private final List<String> repositoryIds;
+
+        private Rule(Pattern pattern, List<String> repositoryIds) {
+            this.pattern = pattern;
+            this.repositoryIds = repositoryIds;
+        }
+    }
+}
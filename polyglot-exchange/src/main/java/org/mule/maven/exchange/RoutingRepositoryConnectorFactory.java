@@ -0,0 +1,160 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange;
+
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.component.annotations.Requirement;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.spi.connector.ArtifactDownload;
+import org.eclipse.aether.spi.connector.ArtifactUpload;
+import org.eclipse.aether.spi.connector.MetadataDownload;
+import org.eclipse.aether.spi.connector.MetadataUpload;
+import org.eclipse.aether.spi.connector.RepositoryConnector;
+import org.eclipse.aether.spi.connector.RepositoryConnectorFactory;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.eclipse.aether.transfer.MetadataNotFoundException;
+import org.eclipse.aether.transfer.NoRepositoryConnectorException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mule.maven.exchange.ExchangeModelProcessor.MAVEN_OFFLINE_FIRST_PROPERTY;
+import static org.mule.maven.exchange.ExchangeModelProcessor.MAVEN_REPOSITORY_ROUTING_PROPERTY;
+import static org.mule.maven.exchange.ExchangeModelProcessor.MAVEN_REPOSITORY_ROUTING_RULES_PROPERTY;
+
+/**
+ * Connects to the remote repositories through the basic connector of the resolver, skipping the requests that can't
+ * succeed or aren't needed:
+ * <ul>
+ * <li>with repository routing, artifacts and metadata of a groupId are only requested from the repositories that may
+ * host it (see {@link RepositoryRouting}). Every repository stays declared in the generated model, so transitive
+ * dependencies of any groupId still resolve, and repositories unknown to the routing (mirrors, repositories of the
+ * settings, etc.) get every request.</li>
+ * <li>with offline-first resolution, a release artifact already in the local repository is never downloaded again,
+ * even if it was downloaded from another repository than the one being asked (the resolver would request it again
+ * otherwise). Artifacts missing from the local repository, SNAPSHOTs and metadata are requested as usual, so nothing
+ * is ever cached that wasn't resolved before.</li>
+ * </ul>
+ * When neither is enabled the factory declines, and the resolver uses the basic connector directly.
+ */
+@Component(role = RepositoryConnectorFactory.class, hint = "exchange-routing")
+public class RoutingRepositoryConnectorFactory implements RepositoryConnectorFactory {
+
+    /**
+     * Higher than the one of the basic connector, so this factory is asked first
+     */
+    private static final float PRIORITY = 10.0f;
+
+    @Requirement(hint = "basic")
+    private RepositoryConnectorFactory basicConnectorFactory;
+
+    public RoutingRepositoryConnectorFactory() {
+    }
+
+    public void setBasicConnectorFactory(RepositoryConnectorFactory basicConnectorFactory) {
+        this.basicConnectorFactory = basicConnectorFactory;
+    }
+
+    @Override
+    public RepositoryConnector newInstance(RepositorySystemSession session, RemoteRepository repository) throws NoRepositoryConnectorException {
+        final boolean routingEnabled = getBoolean(session, MAVEN_REPOSITORY_ROUTING_PROPERTY);
+        final boolean offlineFirst = getBoolean(session, MAVEN_OFFLINE_FIRST_PROPERTY);
+        // malformed rules fail the resolution rather than being silently ignored
+        final RepositoryRouting routing = routingEnabled ? RepositoryRouting.create(getString(session, MAVEN_REPOSITORY_ROUTING_RULES_PROPERTY)) : null;
+        final boolean routed = routing != null && repository.getMirroredRepositories().isEmpty() && routing.isRouted(repository.getId());
+        if (!routed && !offlineFirst) {
+            throw new NoRepositoryConnectorException(repository, "Neither repository routing nor offline-first resolution apply");
+        }
+        return new RoutingRepositoryConnector(basicConnectorFactory.newInstance(session, repository), repository, routed ? routing : null, offlineFirst);
+    }
+
+    @Override
+    public float getPriority() {
+        return PRIORITY;
+    }
+
+    private static boolean getBoolean(RepositorySystemSession session, String key) {
+        return Boolean.parseBoolean(getString(session, key));
+    }
+
+    /**
+     * @return the value of a configuration property of the session, which holds the system and user properties
+     */
+    private static String getString(RepositorySystemSession session, String key) {
+        final Object value = session.getConfigProperties().get(key);
+        return value != null ? value.toString() : null;
+    }
+
+    private static class RoutingRepositoryConnector implements RepositoryConnector {
+
+        private final RepositoryConnector delegate;
+        private final RemoteRepository repository;
+        private final RepositoryRouting routing;
+        private final boolean offlineFirst;
+
+        /**
+         * @param routing null if every groupId must be requested from the {@code repository}
+         */
+        private RoutingRepositoryConnector(RepositoryConnector delegate, RemoteRepository repository, RepositoryRouting routing, boolean offlineFirst) {
+            this.delegate = delegate;
+            this.repository = repository;
+            this.routing = routing;
+            this.offlineFirst = offlineFirst;
+        }
+
+        @Override
+        public void get(Collection<? extends ArtifactDownload> artifactDownloads, Collection<? extends MetadataDownload> metadataDownloads) {
+            final List<ArtifactDownload> remoteArtifacts = new ArrayList<>();
+            for (ArtifactDownload download : nullToEmpty(artifactDownloads)) {
+                if (!isHosted(download.getArtifact().getGroupId())) {
+                    download.setException(new ArtifactNotFoundException(download.getArtifact(), repository,
+                            String.format("%s is not routed to %s", download.getArtifact(), repository.getId())));
+                } else if (!isAvailableLocally(download)) {
+                    remoteArtifacts.add(download);
+                }
+            }
+            final List<MetadataDownload> remoteMetadata = new ArrayList<>();
+            for (MetadataDownload download : nullToEmpty(metadataDownloads)) {
+                if (!isHosted(download.getMetadata().getGroupId())) {
+                    download.setException(new MetadataNotFoundException(download.getMetadata(), repository,
+                            String.format("%s is not routed to %s", download.getMetadata(), repository.getId())));
+                } else {
+                    remoteMetadata.add(download);
+                }
+            }
+            if (!remoteArtifacts.isEmpty() || !remoteMetadata.isEmpty()) {
+                delegate.get(remoteArtifacts, remoteMetadata);
+            }
+        }
+
+        @Override
+        public void put(Collection<? extends ArtifactUpload> artifactUploads, Collection<? extends MetadataUpload> metadataUploads) {
+            delegate.put(artifactUploads, metadataUploads);
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+
+        /**
+         * @param groupId groupId of the artifact or metadata, empty for the metadata of the repository itself
+         */
+        private boolean isHosted(String groupId) {
+            return routing == null || groupId == null || groupId.isEmpty() || routing.route(groupId).contains(repository.getId());
+        }
+
+        private boolean isAvailableLocally(ArtifactDownload download) {
+            return offlineFirst && !download.isExistenceCheck() && !download.getArtifact().isSnapshot()
+                    && download.getFile() != null && download.getFile().isFile();
+        }
+
+        private static <T> Collection<T> nullToEmpty(Collection<T> collection) {
+            return collection != null ? collection : Collections.emptyList();
+        }
+    }
+}
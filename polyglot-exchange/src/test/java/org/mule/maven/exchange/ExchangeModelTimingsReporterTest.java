@@ -0,0 +1,45 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.junit.After;
+import org.junit.Test;
+import org.mule.maven.exchange.utils.ApiProjectConstants;
+
+import java.io.File;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ExchangeModelTimingsReporterTest {
+
+    private final ExchangeModelTimingsReporter reporter = new ExchangeModelTimingsReporter();
+
+    @After
+    public void tearDown() {
+        ExchangeModelTimings.reset();
+    }
+
+    @Test
+    public void nestedSessionsKeepTheTimingsOfTheBuild() {
+        ExchangeModelTimings.record(new File("api"), ExchangeModelTimings.Stage.READ, System.nanoTime());
+
+        final MavenExecutionRequest nestedRequest = new DefaultMavenExecutionRequest();
+        nestedRequest.getUserProperties().setProperty(ApiProjectConstants.MAVEN_NESTED_BUILD, "true");
+        reporter.afterSessionEnd(newSession(nestedRequest));
+        assertFalse(ExchangeModelTimings.isEmpty());
+
+        reporter.afterSessionEnd(newSession(new DefaultMavenExecutionRequest()));
+        assertTrue(ExchangeModelTimings.isEmpty());
+    }
+
+    @SuppressWarnings("deprecation")
+    private static MavenSession newSession(MavenExecutionRequest request) {
+        return new MavenSession(null, null, request, new DefaultMavenExecutionResult());
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange;
+
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.metadata.Metadata;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.spi.connector.ArtifactDownload;
+import org.eclipse.aether.spi.connector.ArtifactUpload;
+import org.eclipse.aether.spi.connector.MetadataDownload;
+import org.eclipse.aether.spi.connector.MetadataUpload;
+import org.eclipse.aether.spi.connector.RepositoryConnector;
+import org.eclipse.aether.spi.connector.RepositoryConnectorFactory;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.eclipse.aether.transfer.ArtifactTransferException;
+import org.eclipse.aether.transfer.MetadataNotFoundException;
+import org.eclipse.aether.transfer.MetadataTransferException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stand-in for the remote repositories: every repository is a local directory with the default layout, and every
+ * request it gets is counted, as if it went through the network.
+ */
+class FileRepositoryStandIn implements RepositoryConnectorFactory {
+
+    private final File root;
+    private final Map<String, Integer> requests = new HashMap<>();
+
+    /**
+     * @param root directory with one folder per repository id
+     */
+    FileRepositoryStandIn(File root) {
+        this.root = root;
+    }
+
+    /**
+     * Publishes an (empty) artifact into the repository.
+     */
+    void publish(String repositoryId, Artifact artifact) throws IOException {
+        final File file = new File(new File(root, repositoryId), path(artifact));
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), artifact.toString().getBytes());
+    }
+
+    int getRequests(String repositoryId) {
+        return requests.getOrDefault(repositoryId, 0);
+    }
+
+    int getRequests() {
+        return requests.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    static String path(Artifact artifact) {
+        return String.format("%s/%s/%s/%s-%s%s.%s", artifact.getGroupId().replace('.', '/'), artifact.getArtifactId(), artifact.getBaseVersion(),
+                artifact.getArtifactId(), artifact.getVersion(), artifact.getClassifier().isEmpty() ? "" : "-" + artifact.getClassifier(), artifact.getExtension());
+    }
+
+    @Override
+    public RepositoryConnector newInstance(RepositorySystemSession session, RemoteRepository repository) {
+        final File repositoryRoot = new File(root, repository.getId());
+        return new RepositoryConnector() {
+            @Override
+            public void get(Collection<? extends ArtifactDownload> artifactDownloads, Collection<? extends MetadataDownload> metadataDownloads) {
+                if (artifactDownloads != null) {
+                    for (ArtifactDownload download : artifactDownloads) {
+                        requests.merge(repository.getId(), 1, Integer::sum);
+                        final File file = new File(repositoryRoot, path(download.getArtifact()));
+                        if (!file.isFile()) {
+                            download.setException(new ArtifactNotFoundException(download.getArtifact(), repository));
+                        } else {
+                            try {
+                                Files.createDirectories(download.getFile().getParentFile().toPath());
+                                Files.copy(file.toPath(), download.getFile().toPath(), StandardCopyOption.REPLACE_EXISTING);
+                            } catch (IOException e) {
+                                download.setException(new ArtifactTransferException(download.getArtifact(), repository, e));
+                            }
+                        }
+                    }
+                }
+                if (metadataDownloads != null) {
+                    for (MetadataDownload download : metadataDownloads) {
+                        requests.merge(repository.getId(), 1, Integer::sum);
+                        final Metadata metadata = download.getMetadata();
+                        final File file = new File(repositoryRoot, String.format("%s/%s/%s", metadata.getGroupId().replace('.', '/'), metadata.getArtifactId(), metadata.getType()));
+                        if (!file.isFile()) {
+                            download.setException(new MetadataNotFoundException(metadata, repository));
+                        } else {
+                            try {
+                                Files.copy(file.toPath(), download.getFile().toPath(), StandardCopyOption.REPLACE_EXISTING);
+                            } catch (IOException e) {
+                                download.setException(new MetadataTransferException(metadata, repository, e));
+                            }
+                        }
+                    }
+                }
+            }
+
+            @Override
+            public void put(Collection<? extends ArtifactUpload> artifactUploads, Collection<? extends MetadataUpload> metadataUploads) {
+                throw new UnsupportedOperationException("The stand-in repositories are read only");
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Override
+    public float getPriority() {
+        return 0;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.spi.connector.ArtifactDownload;
+import org.eclipse.aether.spi.connector.RepositoryConnector;
+import org.eclipse.aether.transfer.NoRepositoryConnectorException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mule.maven.exchange.ExchangeModelProcessor.MAVEN_OFFLINE_FIRST_PROPERTY;
+import static org.mule.maven.exchange.ExchangeModelProcessor.MAVEN_REPOSITORY_ROUTING_PROPERTY;
+import static org.mule.maven.exchange.RepositoryRouting.EXCHANGE_V2_REPOSITORY_ID;
+import static org.mule.maven.exchange.RepositoryRouting.EXCHANGE_V3_REPOSITORY_ID;
+import static org.mule.maven.exchange.RepositoryRouting.MULESOFT_RELEASES_REPOSITORY_ID;
+
+/**
+ * Resolves artifacts the way the resolver does, asking the repositories of the generated model in order until one has
+ * the artifact, and counts the requests that reach the (stand-in) remote repositories.
+ */
+public class RoutingRepositoryConnectorFactoryTest {
+
+    private static final Artifact EXCHANGE_ASSET = new DefaultArtifact("68ef9520-24e9-4cf2-b2f5-620025690913", "training-american-flights-example", "", "zip", "1.0.1");
+    private static final Artifact MISSING_EXCHANGE_ASSET = new DefaultArtifact("68ef9520-24e9-4cf2-b2f5-620025690913", "missing", "", "zip", "1.0.0-SNAPSHOT");
+    private static final Artifact TRANSITIVE_DEPENDENCY = new DefaultArtifact("org.mule.examples", "common-types", "", "jar", "1.0.0");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final List<RemoteRepository> modelRepositories = Arrays.asList(repository(EXCHANGE_V3_REPOSITORY_ID),
+            repository(EXCHANGE_V2_REPOSITORY_ID), repository(MULESOFT_RELEASES_REPOSITORY_ID));
+
+    private final DefaultRepositorySystemSession session = new DefaultRepositorySystemSession();
+    private File localRepository;
+    private FileRepositoryStandIn remoteRepositories;
+    private RoutingRepositoryConnectorFactory connectorFactory;
+
+    @Before
+    public void setUp() throws IOException {
+        localRepository = temporaryFolder.newFolder("local");
+        remoteRepositories = new FileRepositoryStandIn(temporaryFolder.newFolder("remote"));
+        remoteRepositories.publish(EXCHANGE_V3_REPOSITORY_ID, EXCHANGE_ASSET);
+        remoteRepositories.publish(MULESOFT_RELEASES_REPOSITORY_ID, TRANSITIVE_DEPENDENCY);
+        connectorFactory = new RoutingRepositoryConnectorFactory();
+        connectorFactory.setBasicConnectorFactory(remoteRepositories);
+    }
+
+    @Test
+    public void routingSkipsRepositoriesThatCantHostTheGroupId() {
+        assertFalse(resolve(MISSING_EXCHANGE_ASSET, modelRepositories));
+        final int requestsWithoutRouting = remoteRepositories.getRequests();
+        assertEquals(3, requestsWithoutRouting);
+
+        session.setConfigProperty(MAVEN_REPOSITORY_ROUTING_PROPERTY, "true");
+        assertFalse(resolve(MISSING_EXCHANGE_ASSET, modelRepositories));
+        assertEquals(1, remoteRepositories.getRequests() - requestsWithoutRouting);
+        assertEquals(2, remoteRepositories.getRequests(EXCHANGE_V3_REPOSITORY_ID));
+        assertEquals(1, remoteRepositories.getRequests(EXCHANGE_V2_REPOSITORY_ID));
+        assertEquals(1, remoteRepositories.getRequests(MULESOFT_RELEASES_REPOSITORY_ID));
+    }
+
+    @Test
+    public void routingResolvesDependenciesOfAnyGroupId() {
+        session.setConfigProperty(MAVEN_REPOSITORY_ROUTING_PROPERTY, "true");
+        assertTrue(resolve(EXCHANGE_ASSET, modelRepositories));
+        assertEquals(1, remoteRepositories.getRequests());
+        // transitive dependencies that aren't Exchange assets are still looked up in every repository
+        assertTrue(resolve(TRANSITIVE_DEPENDENCY, modelRepositories));
+        assertEquals(4, remoteRepositories.getRequests());
+    }
+
+    @Test
+    public void routingDoesntApplyToUnknownRepositories() throws IOException {
+        session.setConfigProperty(MAVEN_REPOSITORY_ROUTING_PROPERTY, "true");
+        final RemoteRepository mirror = repository("company-mirror");
+        remoteRepositories.publish(mirror.getId(), MISSING_EXCHANGE_ASSET);
+        assertTrue(resolve(MISSING_EXCHANGE_ASSET, Collections.singletonList(mirror)));
+        assertEquals(1, remoteRepositories.getRequests(mirror.getId()));
+    }
+
+    @Test
+    public void offlineFirstDoesntRequestReleasesAlreadyInTheLocalRepository() throws IOException {
+        assertTrue(resolve(EXCHANGE_ASSET, modelRepositories));
+        assertTrue(resolve(EXCHANGE_ASSET, modelRepositories));
+        assertEquals(2, remoteRepositories.getRequests());
+
+        session.setConfigProperty(MAVEN_OFFLINE_FIRST_PROPERTY, "true");
+        assertTrue(resolve(EXCHANGE_ASSET, modelRepositories));
+        assertEquals(2, remoteRepositories.getRequests());
+    }
+
+    @Test
+    public void offlineFirstRequestsMissingArtifactsAndSnapshots() throws IOException {
+        session.setConfigProperty(MAVEN_OFFLINE_FIRST_PROPERTY, "true");
+        // a previous miss isn't remembered, the artifact is requested again once it's published
+        assertFalse(resolve(MISSING_EXCHANGE_ASSET, modelRepositories));
+        remoteRepositories.publish(EXCHANGE_V2_REPOSITORY_ID, MISSING_EXCHANGE_ASSET);
+        assertTrue(resolve(MISSING_EXCHANGE_ASSET, modelRepositories));
+        assertEquals(5, remoteRepositories.getRequests());
+        // and SNAPSHOTs are always checked for updates
+        assertTrue(resolve(MISSING_EXCHANGE_ASSET, modelRepositories));
+        assertEquals(7, remoteRepositories.getRequests());
+    }
+
+    /**
+     * @return true if the artifact was found in one of the {@code repositories}
+     */
+    private boolean resolve(Artifact artifact, List<RemoteRepository> repositories) {
+        final File file = new File(localRepository, FileRepositoryStandIn.path(artifact));
+        for (RemoteRepository repository : repositories) {
+            final ArtifactDownload download = new ArtifactDownload(artifact, null, file, null);
+            final RepositoryConnector connector = newConnector(repository);
+            try {
+                connector.get(Collections.singletonList(download), null);
+            } finally {
+                connector.close();
+            }
+            if (download.getException() == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Same as the resolver, falling back to the basic connector when the factory declines the repository
+     */
+    private RepositoryConnector newConnector(RemoteRepository repository) {
+        try {
+            return connectorFactory.newInstance(session, repository);
+        } catch (NoRepositoryConnectorException e) {
+            return remoteRepositories.newInstance(session, repository);
+        }
+    }
+
+    private static RemoteRepository repository(String id) {
+        return new RemoteRepository.Builder(id, "default", "https://" + id + ".example.com/maven").build();
+    }
+}
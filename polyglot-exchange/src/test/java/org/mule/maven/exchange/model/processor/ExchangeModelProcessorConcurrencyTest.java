@@ -0,0 +1,147 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange.model.processor;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.apache.maven.model.building.FileModelSource;
+import org.apache.maven.model.building.ModelProcessor;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mule.maven.exchange.ExchangeModelProcessor;
+import org.mule.maven.exchange.PomXmlResult;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Reads many synthetic projects concurrently with a single processor, as a parallel reactor ({@code mvn -T}) does, and
+ * checks that the output is deterministic and that no source is modified while reading.
+ */
+public class ExchangeModelProcessorConcurrencyTest {
+
+    private static final int PROJECTS = 32;
+    private static final int READS_PER_PROJECT = 4;
+    private static final int THREADS = 16;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void concurrentReadsGenerateSameModels() throws Exception {
+        final List<File> projects = new ArrayList<>();
+        final Map<File, byte[]> originalExchangeJsons = new HashMap<>();
+        for (int i = 0; i < PROJECTS; i++) {
+            final File project = createProject(i);
+            projects.add(project);
+            originalExchangeJsons.put(project, Files.readAllBytes(new File(project, "exchange.json").toPath()));
+        }
+
+        final ExchangeModelProcessor exchangeModelProcessor = new ExchangeModelProcessor();
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        final Map<File, List<Future<String>>> results = new HashMap<>();
+        try {
+            for (int read = 0; read < READS_PER_PROJECT; read++) {
+                for (File project : projects) {
+                    final Callable<String> task = () -> {
+                        start.await();
+                        return readModel(exchangeModelProcessor, project);
+                    };
+                    results.computeIfAbsent(project, p -> new ArrayList<>()).add(executor.submit(task));
+                }
+            }
+            start.countDown();
+
+            final List<File> exchangeJsons = new ArrayList<>();
+            projects.forEach(project -> exchangeJsons.add(new File(project, "exchange.json")));
+            final List<PomXmlResult> expected = ExchangeModelProcessor.toPomXml(exchangeJsons, THREADS);
+            assertEquals(PROJECTS, expected.size());
+
+            for (PomXmlResult pomXmlResult : expected) {
+                assertTrue(String.valueOf(pomXmlResult.getError()), pomXmlResult.isSuccessful());
+                final File project = pomXmlResult.getExchangeJson().getParentFile();
+                for (Future<String> result : results.get(project)) {
+                    assertEquals(pomXmlResult.getPomXml(), result.get());
+                }
+                assertEquals(pomXmlResult.getPomXml(), new String(Files.readAllBytes(new File(project, ".exchange.xml").toPath()), StandardCharsets.UTF_8));
+                assertArrayEquals(originalExchangeJsons.get(project), Files.readAllBytes(pomXmlResult.getExchangeJson().toPath()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void batchConversionReportsFailuresPerFile() throws IOException {
+        final File first = new File(createProject(0), "exchange.json");
+        final File second = new File(createProject(1), "exchange.json");
+        final File malformed = new File(temporaryFolder.newFolder("malformed"), "exchange.json");
+        Files.write(malformed.toPath(), "{\"main\": \"api.raml\", \"name\": ".getBytes(StandardCharsets.UTF_8));
+        final File missing = new File(temporaryFolder.newFolder("missing"), "exchange.json");
+
+        final List<PomXmlResult> results = ExchangeModelProcessor.toPomXml(Arrays.asList(first, malformed, first, missing, second, malformed), THREADS);
+
+        // duplicates are collapsed, the order is kept
+        assertEquals(4, results.size());
+        assertEquals(Arrays.asList(first, malformed, missing, second), results.stream().map(PomXmlResult::getExchangeJson).collect(Collectors.toList()));
+        assertTrue(results.get(0).isSuccessful());
+        assertEquals(ExchangeModelProcessor.toPomXml(first), results.get(0).getPomXml());
+        assertTrue(results.get(3).isSuccessful());
+        assertEquals(ExchangeModelProcessor.toPomXml(second), results.get(3).getPomXml());
+
+        assertFalse(results.get(1).isSuccessful());
+        assertNull(results.get(1).getPomXml());
+        assertTrue(String.valueOf(results.get(1).getError()), results.get(1).getError() instanceof JsonProcessingException);
+        assertFalse(results.get(2).isSuccessful());
+        assertTrue(String.valueOf(results.get(2).getError()), results.get(2).getError() instanceof FileNotFoundException);
+    }
+
+    private String readModel(ExchangeModelProcessor exchangeModelProcessor, File project) throws IOException {
+        final HashMap<String, Object> options = new HashMap<>();
+        options.put(ModelProcessor.SOURCE, new FileModelSource(exchangeModelProcessor.locatePom(project)));
+        try (FileInputStream inputStream = new FileInputStream(new File(project, "exchange.json"))) {
+            return exchangeModelProcessor.toXmlString(exchangeModelProcessor.read(inputStream, options));
+        }
+    }
+
+    private File createProject(int index) throws IOException {
+        final File project = temporaryFolder.newFolder("project-" + index);
+        final StringBuilder dependencies = new StringBuilder();
+        for (int i = 0; i <= index % 5; i++) {
+            if (i > 0) {
+                dependencies.append(",");
+            }
+            dependencies.append(String.format("{\"groupId\": \"68ef9520-24e9-4cf2-b2f5-620025690913\", \"assetId\": \"fragment-%d\", \"version\": \"1.0.%d\"%s}",
+                    i, index, i % 2 == 0 ? "" : ", \"classifier\": \"ruleset\""));
+        }
+        // half of the projects rely on the defaults (assetId and version) that used to be written back to the file
+        final String coordinates = index % 2 == 0 ? "\"assetId\": \"api-" + index + "\", \"version\": \"1.0.0\"," : "";
+        final String exchangeJson = String.format("{\"main\": \"api.raml\", \"name\": \"API %d\", \"classifier\": \"raml\", %s " +
+                "\"groupId\": \"e391ca1a-41ef-49a4-88b3-ae1106af1867\", \"dependencies\": [%s]}", index, coordinates, dependencies);
+        Files.write(new File(project, "exchange.json").toPath(), exchangeJson.getBytes(StandardCharsets.UTF_8));
+        return project;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ */
+package org.mule.maven.exchange.model.processor;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.model.building.FileModelSource;
+import org.apache.maven.model.building.ModelProcessor;
+import org.apache.maven.model.building.ModelSource2;
+import org.codehaus.plexus.util.IOUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mule.maven.exchange.ExchangeModelProcessor;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.HashMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks which files of the project are written while reading its model.
+ */
+public class ExchangeModelProcessorFilesTest {
+
+    private static final FileTime PREVIOUS_BUILD = FileTime.fromMillis(1_000_000_000_000L);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File project;
+    private File exchangeJson;
+    private byte[] originalExchangeJson;
+
+    @Before
+    public void setUp() throws IOException {
+        System.setProperty("exchange.maven.modelCache.disable", "true");
+        project = temporaryFolder.newFolder("project");
+        exchangeJson = new File(project, "exchange.json");
+        // no assetId nor version, so that their defaults are applied
+        originalExchangeJson = ("{\"main\": \"api.raml\", \"name\": \"My API\", \"classifier\": \"raml\", " +
+                "\"groupId\": \"e391ca1a-41ef-49a4-88b3-ae1106af1867\", \"dependencies\": []}").getBytes(StandardCharsets.UTF_8);
+        Files.write(exchangeJson.toPath(), originalExchangeJson);
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty("exchange.maven.modelCache.disable");
+        System.clearProperty("exchange.maven.exchangeJson.writeBack");
+        System.clearProperty("exchange.maven.inMemoryModel");
+    }
+
+    @Test
+    public void temporalPomIsKeptBetweenBuildsThatChangeNothing() throws IOException {
+        final String model = readModel(new ExchangeModelProcessor());
+        final File exchangeXml = new File(project, ".exchange.xml");
+        assertEquals(model, new String(Files.readAllBytes(exchangeXml.toPath()), StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(exchangeXml.toPath(), PREVIOUS_BUILD);
+
+        // a new processor, as the next build gets
+        assertEquals(model, readModel(new ExchangeModelProcessor()));
+
+        assertEquals(PREVIOUS_BUILD, Files.getLastModifiedTime(exchangeXml.toPath()));
+        assertArrayEquals(originalExchangeJson, Files.readAllBytes(exchangeJson.toPath()));
+    }
+
+    @Test
+    public void exchangeJsonDefaultsAreOnlyWrittenBackWhenRequested() throws IOException {
+        System.setProperty("exchange.maven.exchangeJson.writeBack", "true");
+
+        readModel(new ExchangeModelProcessor());
+
+        final String exchangeJsonContent = new String(Files.readAllBytes(exchangeJson.toPath()), StandardCharsets.UTF_8);
+        assertFalse(exchangeJsonContent.equals(new String(originalExchangeJson, StandardCharsets.UTF_8)));
+        assertTrue(exchangeJsonContent, exchangeJsonContent.contains("\"assetId\" : \"my-api\""));
+        assertTrue(exchangeJsonContent, exchangeJsonContent.contains("\"version\" : \"1.0.0-SNAPSHOT\""));
+    }
+
+    @Test
+    public void inMemoryModelIsServedWithoutWritingTheTemporalPom() throws IOException {
+        System.setProperty("exchange.maven.inMemoryModel", "true");
+        final ExchangeModelProcessor exchangeModelProcessor = new ExchangeModelProcessor();
+        final File exchangeXml = exchangeModelProcessor.locatePom(project);
+        final HashMap<String, Object> options = new HashMap<>();
+        options.put(ModelProcessor.SOURCE, new FileModelSource(exchangeXml));
+
+        final Model model;
+        try (FileInputStream inputStream = new FileInputStream(exchangeJson)) {
+            model = exchangeModelProcessor.read(inputStream, options);
+        }
+
+        // the file is only created, the `write-pom` goal of the packager writes it before the installation
+        assertEquals(exchangeXml, model.getPomFile());
+        assertTrue(exchangeXml.isFile());
+        assertEquals(0, exchangeXml.length());
+        final ModelSource2 source = (ModelSource2) options.get(ModelProcessor.SOURCE);
+        assertEquals(exchangeJson.getPath(), source.getLocation());
+        assertEquals(exchangeJson.toURI(), source.getLocationURI());
+        try (InputStream inputStream = source.getInputStream()) {
+            assertEquals(exchangeModelProcessor.toXmlString(model), IOUtil.toString(inputStream, "UTF-8"));
+        }
+        assertArrayEquals(originalExchangeJson, Files.readAllBytes(exchangeJson.toPath()));
+        final PluginExecution writePom = model.getBuild().getPluginsAsMap().get("org.mule.maven.exchange:exchange_api_packager")
+                .getExecutionsAsMap().get("write-pom");
+        assertEquals("verify", writePom.getPhase());
+        assertEquals(Collections.singletonList("write-pom"), writePom.getGoals());
+    }
+
+    private String readModel(ExchangeModelProcessor exchangeModelProcessor) throws IOException {
+        final HashMap<String, Object> options = new HashMap<>();
+        options.put(ModelProcessor.SOURCE, new FileModelSource(exchangeModelProcessor.locatePom(project)));
+        try (FileInputStream inputStream = new FileInputStream(exchangeJson)) {
+            return exchangeModelProcessor.toXmlString(exchangeModelProcessor.read(inputStream, options));
+        }
+    }
+}
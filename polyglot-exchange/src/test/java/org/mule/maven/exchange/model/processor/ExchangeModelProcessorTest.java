@@ -11,6 +11,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.mule.maven.exchange.ExchangeModelProcessor;
+import org.mule.maven.exchange.utils.ApiProjectConstants;
 import org.xmlunit.builder.DiffBuilder;
 import org.xmlunit.builder.Input;
 import org.xmlunit.diff.Diff;
@@ -21,16 +22,22 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.*;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(Parameterized.class)
 public class ExchangeModelProcessorTest {
 
     public static final String EXCHANGE_JSON = "exchange.json";
     public static final String POM_XML = "pom.xml";
+    private static final String CACHE_MARKER = "served-from-the-model-cache";
     final File testCase;
 
     public ExchangeModelProcessorTest(String name, File testCase) {
@@ -46,6 +53,13 @@ public class ExchangeModelProcessorTest {
             if (testCase.getName().equals("light_ruleset")) {
                 System.setProperty("exchange.maven.dependencies.useLightRulesets", "true");
             }
+            if (testCase.getName().equals("repository_routing")) {
+                System.setProperty("exchange.maven.repositories.routing", "true");
+                System.setProperty("exchange.maven.repositories.routing.rules", "org\\.mule\\..*=mulesoft-releases");
+            }
+            if (testCase.getName().equals("connector_in_process")) {
+                System.setProperty("exchange.maven.restConnect.inProcess", "true");
+            }
             final ExchangeModelProcessor exchangeModelProcessor = new ExchangeModelProcessor();
             final HashMap<String, Object> options = new HashMap<>();
             final File exchangeFile = getExchangeFile(testCase);
@@ -69,6 +83,108 @@ public class ExchangeModelProcessorTest {
         } finally {
             System.clearProperty("groupId");
             System.clearProperty("exchange.maven.dependencies.useLightRulesets");
+            System.clearProperty("exchange.maven.repositories.routing");
+            System.clearProperty("exchange.maven.repositories.routing.rules");
+            System.clearProperty("exchange.maven.restConnect.inProcess");
+        }
+    }
+
+    @Test
+    public void generateSameModelFromCache() throws IOException {
+        final File exchangeJson = getExchangeFile(testCase);
+        final File apiVcsConfig = new File(new File(testCase, ".apivcs"), "config.properties");
+        final byte[] originalExchangeJson = Files.readAllBytes(exchangeJson.toPath());
+        final byte[] originalApiVcsConfig = apiVcsConfig.isFile() ? Files.readAllBytes(apiVcsConfig.toPath()) : null;
+        try {
+            if (!testCase.getName().startsWith("groupId")) {
+                System.setProperty("groupId", "org.mule.test");
+            }
+            final String firstBuild = readModel();
+            final File cacheEntry = getSingleCacheEntry();
+            assertEquals(firstBuild, readModel());
+
+            // a model only served from the cache has the marker
+            markCacheEntry(cacheEntry);
+            assertTrue("Model wasn't served from the cache", readModel().contains(CACHE_MARKER));
+
+            // any change of the exchange.json invalidates the entry
+            Files.write(exchangeJson.toPath(), (new String(originalExchangeJson, StandardCharsets.UTF_8) + "\n").getBytes(StandardCharsets.UTF_8));
+            assertFalse("Model was served from a stale cache entry", readModel().contains(CACHE_MARKER));
+            final File editedExchangeJsonEntry = getSingleCacheEntry();
+            assertNotEquals(cacheEntry.getName(), editedExchangeJsonEntry.getName());
+
+            // so does any change of the apivcs configuration
+            markCacheEntry(editedExchangeJsonEntry);
+            assertTrue("Model wasn't served from the cache", readModel().contains(CACHE_MARKER));
+            Files.createDirectories(apiVcsConfig.getParentFile().toPath());
+            final String apiVcsConfigContent = originalApiVcsConfig != null ? new String(originalApiVcsConfig, StandardCharsets.UTF_8) : "";
+            Files.write(apiVcsConfig.toPath(), (apiVcsConfigContent + "\n# edited\n").getBytes(StandardCharsets.UTF_8));
+            assertFalse("Model was served from a stale cache entry", readModel().contains(CACHE_MARKER));
+            assertNotEquals(editedExchangeJsonEntry.getName(), getSingleCacheEntry().getName());
+        } finally {
+            System.clearProperty("groupId");
+            Files.write(exchangeJson.toPath(), originalExchangeJson);
+            if (originalApiVcsConfig != null) {
+                Files.write(apiVcsConfig.toPath(), originalApiVcsConfig);
+            } else {
+                FileUtils.deleteDirectory(apiVcsConfig.getParentFile());
+            }
+            FileUtils.deleteDirectory(getModelCacheDirectory());
+        }
+    }
+
+    @Test
+    public void regenerateModelOfCorruptCacheEntry() throws IOException {
+        try {
+            if (!testCase.getName().startsWith("groupId")) {
+                System.setProperty("groupId", "org.mule.test");
+            }
+            final String firstBuild = readModel();
+            final File cacheEntry = getSingleCacheEntry();
+            final byte[] cachedModel = Files.readAllBytes(cacheEntry.toPath());
+
+            // truncated, as a partial write leaves it
+            Files.write(cacheEntry.toPath(), "<project><modelVersion>4.0".getBytes(StandardCharsets.UTF_8));
+            assertEquals(firstBuild, readModel());
+            assertEquals(cacheEntry.getName(), getSingleCacheEntry().getName());
+            assertEquals(new String(cachedModel, StandardCharsets.UTF_8), new String(Files.readAllBytes(cacheEntry.toPath()), StandardCharsets.UTF_8));
+        } finally {
+            System.clearProperty("groupId");
+            FileUtils.deleteDirectory(getModelCacheDirectory());
+        }
+    }
+
+    private File getModelCacheDirectory() {
+        return new File(new File(testCase, ApiProjectConstants.EXCHANGE_MODULES_TMP), "model_cache");
+    }
+
+    /**
+     * @return the only entry of the model cache, as every new entry replaces the previous one of the project
+     */
+    private File getSingleCacheEntry() {
+        final File[] entries = getModelCacheDirectory().listFiles((dir, name) -> name.endsWith(".xml"));
+        assertNotNull("Model wasn't cached", entries);
+        assertEquals(1, entries.length);
+        return entries[0];
+    }
+
+    /**
+     * Adds a description to the cached model, that can't come from the exchange.json
+     */
+    private static void markCacheEntry(File cacheEntry) throws IOException {
+        final String xml = new String(Files.readAllBytes(cacheEntry.toPath()), StandardCharsets.UTF_8);
+        final String markedXml = xml.replace("<modelVersion>4.0.0</modelVersion>",
+                "<modelVersion>4.0.0</modelVersion><description>" + CACHE_MARKER + "</description>");
+        assertNotEquals(xml, markedXml);
+        Files.write(cacheEntry.toPath(), markedXml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String readModel() throws IOException {
+        final ExchangeModelProcessor exchangeModelProcessor = new ExchangeModelProcessor();
+        final HashMap<String, Object> options = new HashMap<>();
+        options.put(ModelProcessor.SOURCE, new FileModelSource(exchangeModelProcessor.locatePom(testCase)));
+        try (FileInputStream inputStream = new FileInputStream(getExchangeFile(testCase))) {
+            return exchangeModelProcessor.toXmlString(exchangeModelProcessor.read(inputStream, options));
         }
     }
 
@@ -87,6 +203,8 @@ public class ExchangeModelProcessorTest {
                     for (File file : files) {
                         if (file.isDirectory() && isTestDirectory(file)) {
                             final File workingDir = new File(FileUtils.getTempDirectory(), file.getName());
+                            // start from scratch, leftovers of previous runs (like the model cache) must not be reused
+                            FileUtils.deleteDirectory(workingDir);
                             FileUtils.copyDirectory(file, workingDir);
                             args.add(new Object[]{workingDir.getName(), workingDir});
                         }